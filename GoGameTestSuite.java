@@ -2,10 +2,40 @@ import org.junit.platform.suite.api.SelectClasses;
 import org.junit.platform.suite.api.Suite;
 
 import gogame.BoardSizeTest;
+import gogame.GameDatabaseTest;
+import gogame.GameValidatorTest;
 import gogame.GoStateTest;
+import gogame.MetricsTest;
+import gogame.MoveJournalTest;
+import gogame.NeighborTableTest;
+import gogame.PerftTest;
+import gogame.PointTest;
+import gogame.PositionTest;
+import gogame.ScorerTest;
+import gogame.SgfTest;
+import gogame.engine.DeadStoneEstimatorTest;
+import gogame.engine.MctsPlayerTest;
+import gogame.engine.PlayoutSimulatorTest;
+import gogame.engine.TranspositionTableTest;
+import gogame.server.GameServerTest;
 
 @SelectClasses({
 	BoardSizeTest.class,
     GoStateTest.class,
+    NeighborTableTest.class,
+    ScorerTest.class,
+    SgfTest.class,
+    GameDatabaseTest.class,
+    GameValidatorTest.class,
+    PerftTest.class,
+    PointTest.class,
+    PositionTest.class,
+    MetricsTest.class,
+    MoveJournalTest.class,
+    MctsPlayerTest.class,
+    PlayoutSimulatorTest.class,
+    DeadStoneEstimatorTest.class,
+    TranspositionTableTest.class,
+    GameServerTest.class,
 })
 @Suite public class GoGameTestSuite {}
@@ -0,0 +1,136 @@
+package gogame.benchmarks;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import gogame.BoardSize;
+import gogame.BoardSpace;
+import gogame.GoState;
+import gogame.Point;
+
+/**
+ * The hot paths of the rules engine, on positions of random games of the given length.
+ * The queried points go round the board (or the stones, or the legal moves), so every kind of point is measured, and the results don't depend on one lucky point.
+ * The moves are taken back after they are measured, so the position (and its history) stays the same during the benchmark.
+*/
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GoStateBenchmark {
+	@Param({ "NINE", "THIRTEEN", "NINETEEN" })
+	public BoardSize boardSize;
+	
+	@Param({ "0", "60", "240" })
+	public int history;
+	
+	private GoState state;
+	private GoState copy;
+	private Point[] points;
+	private Point[] stones;
+	private Point[] legalMoves;
+	private BitSet legal;
+	private int next;
+	
+	@Setup
+	public void setUp() {
+		int size = boardSize.getSize();
+		state = Positions.randomGame(size, history);
+		copy = new GoState(state);
+		points = Positions.points(size);
+		List<Point> stoneList = new ArrayList<>();
+		List<Point> legalList = new ArrayList<>();
+		for(Point p : points) {
+			if(BoardSpace.EMPTY != state.getBoardSpace(p)) {
+				stoneList.add(p);
+			} else if(state.isLegalMove(p)) {
+				legalList.add(p);
+			}
+		}
+		stones = stoneList.isEmpty() ? points : stoneList.toArray(Point[]::new); // on the empty board the empty points are queried
+		legalMoves = legalList.toArray(Point[]::new);
+		legal = new BitSet(size * size);
+	}
+	
+	private Point nextOf(Point[] ps) {
+		if(ps.length <= ++next) {
+			next = 0;
+		}
+		return ps[next % ps.length];
+	}
+	
+	@Benchmark
+	public Point[] getNeighbors() {
+		return state.getNeighbors(nextOf(points));
+	}
+	
+	@Benchmark
+	public Point[] getLiberties() {
+		Point p = nextOf(stones);
+		BoardSpace boardSpace = state.getBoardSpace(p);
+		return state.getLiberties(BoardSpace.EMPTY == boardSpace ? state.turn : boardSpace.stone, p, new HashSet<>());
+	}
+	
+	@Benchmark
+	public GoState checkCaptured() {
+		state.checkCaptured(nextOf(stones)); // the stones of a legal position have liberties, so nothing is captured
+		return state;
+	}
+	
+	@Benchmark
+	public GoState placeStone() {
+		state.placeStone(nextOf(legalMoves));
+		state.unmakeMove();
+		return state;
+	}
+	
+	@Benchmark
+	public boolean isLegalMove() {
+		return state.isLegalMove(nextOf(points));
+	}
+	
+	@Benchmark
+	public BitSet legalMoves() {
+		state.legalMoves(legal);
+		return legal;
+	}
+	
+	@Benchmark
+	public boolean makeMove() {
+		boolean ended = state.makeMove(nextOf(legalMoves));
+		state.unmakeMove();
+		return ended;
+	}
+	
+	@Benchmark
+	public int hashCodeOfState() {
+		return state.hashCode();
+	}
+	
+	@Benchmark
+	public boolean equalsCopy() {
+		return state.equals(copy);
+	}
+	
+	@Benchmark
+	public GoState copyConstructor() {
+		return new GoState(state);
+	}
+}
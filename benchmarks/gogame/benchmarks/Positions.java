@@ -0,0 +1,53 @@
+package gogame.benchmarks;
+
+import java.util.BitSet;
+import java.util.SplittableRandom;
+
+import gogame.GoState;
+import gogame.Point;
+
+/**
+ * Builds the positions of the benchmarks: random games (with a fixed seed), so every run measures the same positions.
+*/
+final class Positions {
+	private static final long SEED = 20240601;
+	
+	private Positions() {}
+	
+	/**
+	 * Plays random legal moves from the empty board.
+	 * @param size of the board.
+	 * @param moves the number of moves to play (the length of the history).
+	 * @return the position after the moves.
+	*/
+	static GoState randomGame(int size, int moves) {
+		SplittableRandom random = new SplittableRandom(SEED);
+		GoState state = new GoState(size);
+		BitSet legal = new BitSet(size * size);
+		for(int m = 0; m < moves; m++) {
+			state.legalMoves(legal);
+			if(legal.isEmpty()) {
+				state.makeMove(null);
+				continue;
+			}
+			int k = random.nextInt(legal.cardinality());
+			int i = legal.nextSetBit(0);
+			while(0 < k--) {
+				i = legal.nextSetBit(i + 1);
+			}
+			state.makeMove(Point.of(i % size, i / size));
+		}
+		return state;
+	}
+	
+	/**
+	 * @return every point of the board.
+	*/
+	static Point[] points(int size) {
+		Point[] points = new Point[size * size];
+		for(int i = 0; i < points.length; i++) {
+			points[i] = Point.of(i % size, i / size);
+		}
+		return points;
+	}
+}
@@ -0,0 +1,64 @@
+package gogame.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import gogame.BoardSize;
+import gogame.GoState;
+
+/**
+ * Saving and loading games of the given length (the file is in the temporary directory, so the results include the file system's overhead).
+*/
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SaveLoadBenchmark {
+	@Param({ "NINE", "THIRTEEN", "NINETEEN" })
+	public BoardSize boardSize;
+	
+	@Param({ "0", "60", "240" })
+	public int history;
+	
+	private GoState state;
+	private File file;
+	
+	@Setup
+	public void setUp() throws IOException {
+		state = Positions.randomGame(boardSize.getSize(), history);
+		file = File.createTempFile("benchmark", ".go");
+		state.saveGame(file);
+	}
+	
+	@TearDown
+	public void tearDown() {
+		file.delete();
+	}
+	
+	@Benchmark
+	public File saveGame() {
+		state.saveGame(file);
+		return file;
+	}
+	
+	@Benchmark
+	public GoState loadGame() {
+		return GoState.loadGame(file);
+	}
+}
@@ -0,0 +1,272 @@
+package gogame;
+
+import java.util.Arrays;
+
+/**
+ * Keeps track of the chains (connected stones of the same color) of a board, and their liberty counts.
+ * The table is updated incrementally when a stone is placed or a chain is removed, so the chain and liberty count of a point can be read in O(1).
+ * Every chain is represented by one of its stones (the "representative"), the stones of a chain form a circular linked list.
+ * The table is copied with every GoState, so the point indices and counts are stored in shorts (the biggest board has 52 * 52 points),
+ * and the scratch arrays are allocated only when the copy is first changed or searched.
+*/
+final class ChainTable {
+	private static final byte EMPTY = (byte) BoardSpace.EMPTY.ordinal();
+	private static final BoardSpace[] BOARD_SPACES = BoardSpace.values();
+	private static final short NONE = -1;
+
+	private final int size;
+	private final NeighborTable neighbors;
+	private final byte[] board; // the board of the GoState
+	private final long[] zobristKeys;
+	private final short[] chainOf; // representative of the point's chain, NONE for empty points
+	private final short[] next; // next stone in the same chain (circular)
+	private final short[] stones; // number of stones in the chain (valid for representatives)
+	private final short[] liberties; // number of liberties of the chain (valid for representatives)
+	private final long[] hashes; // XOR of the chain's stones' Zobrist keys (valid for representatives)
+	private int[] marks; // scratch space to mark points, a point is marked if its value equals the current stamp (null until the first marking)
+	private short[] stack; // scratch space for the flood fill (null until the first flood fill)
+	private int stamp;
+
+	ChainTable(byte[] board, NeighborTable neighbors, long[] zobristKeys) {
+		size = neighbors.getSize();
+		this.neighbors = neighbors;
+		this.board = board;
+		this.zobristKeys = zobristKeys;
+		chainOf = new short[size * size];
+		next = new short[size * size];
+		stones = new short[size * size];
+		liberties = new short[size * size];
+		hashes = new long[size * size];
+		rebuild();
+	}
+
+	/**
+	 * Copies the chains of an other table, that belongs to a copy of the given board.
+	 * @param o the table to copy.
+	 * @param board the copied board (must have the same content as o's board).
+	*/
+	ChainTable(ChainTable o, byte[] board) {
+		size = o.size;
+		neighbors = o.neighbors;
+		this.board = board;
+		zobristKeys = o.zobristKeys;
+		chainOf = o.chainOf.clone();
+		next = o.next.clone();
+		stones = o.stones.clone();
+		liberties = o.liberties.clone();
+		hashes = o.hashes.clone(); // the scratch arrays aren't copied, they are allocated when the copy needs them
+	}
+
+	int chainOf(int i) { return chainOf[i]; }
+	int next(int i) { return next[i]; }
+	int stones(int chain) { return stones[chain]; }
+	int liberties(int chain) { return liberties[chain]; }
+	long hash(int chain) { return hashes[chain]; }
+
+	/**
+	 * Starts a new marking: after this call no point is marked.
+	 * @return the stamp to pass to {@link #mark(int, int)}.
+	*/
+	int newStamp() {
+		if(null == marks) {
+			marks = new int[size * size];
+		}
+		if(0 == ++stamp) { // the stamp overflowed, old marks could be mistaken for new ones
+			Arrays.fill(marks, 0);
+			stamp = 1;
+		}
+		return stamp;
+	}
+
+	/**
+	 * Marks a point.
+	 * @return true if the point wasn't marked before.
+	*/
+	boolean mark(int i, int stamp) {
+		if(stamp == marks[i]) {
+			return false;
+		}
+		marks[i] = stamp;
+		return true;
+	}
+
+	/**
+	 * Updates the chains after a stone was placed on the (previously empty) point i:
+	 * the point is removed from the neighbor chains' liberties, and it's merged with the same color neighbor chains.
+	*/
+	void addStone(int i) {
+		chainOf[i] = (short) i;
+		next[i] = (short) i;
+		stones[i] = 1;
+		hashes[i] = Zobrist.key(zobristKeys, i, BOARD_SPACES[board[i]].stone);
+
+		int chain = i;
+		boolean merged = false;
+		int libs = 0;
+		int stamp = newStamp();
+		mark(i, stamp); // neighbor chains merged into i's chain are already handled
+		for(int k = 0, count = neighbors.count(i); k < count; k++) {
+			int n = neighbors.neighbor(i, k);
+			if(EMPTY == board[n]) {
+				++libs;
+				continue;
+			}
+			int neighborChain = chainOf[n];
+			if(!mark(neighborChain, stamp)) {
+				continue; // already handled through an other neighbor
+			}
+			--liberties[neighborChain]; // i was a liberty of the neighbor chain
+			if(board[n] == board[i]) {
+				chain = merge(chain, neighborChain);
+				merged = true;
+			}
+		}
+		liberties[chain] = (short) (merged ? countLiberties(chain) : libs);
+	}
+
+	/**
+	 * Updates the chains after a chain was removed from the board (its points are already empty on the board).
+	*/
+	void removeChain(int chain) {
+		int i = chain;
+		do {
+			chainOf[i] = NONE;
+			int stamp = newStamp(); // a removed stone gives only one liberty to a neighbor chain, even if they are connected on multiple sides
+			for(int k = 0, count = neighbors.count(i); k < count; k++) {
+				int n = neighbors.neighbor(i, k);
+				if(EMPTY != board[n] && mark(chainOf[n], stamp)) {
+					++liberties[chainOf[n]];
+				}
+			}
+			i = next[i];
+		} while(i != chain);
+	}
+
+	/**
+	 * Recomputes every chain of the board from scratch (needed when the board was changed by other means than placing a stone or removing a chain).
+	*/
+	void rebuild() {
+		Arrays.fill(chainOf, NONE);
+		for(int i = 0; i < chainOf.length; i++) {
+			if(EMPTY != board[i] && NONE == chainOf[i]) {
+				floodFill(i);
+			}
+		}
+	}
+
+	/**
+	 * Recomputes the chains around a point, must be called after the point was changed directly on the board.
+	 * @param i index of the changed point.
+	 * @param previous the point's content before the change.
+	*/
+	void rebuildAround(int i, byte previous) {
+		byte current = board[i];
+		board[i] = previous; // the chains must be detached as they were before the change
+		detach(i);
+		for(int k = 0, count = neighbors.count(i); k < count; k++) {
+			detach(neighbors.neighbor(i, k));
+		}
+		board[i] = current;
+
+		if(EMPTY != current) {
+			floodFill(i);
+		}
+		for(int k = 0, count = neighbors.count(i); k < count; k++) {
+			int n = neighbors.neighbor(i, k);
+			if(EMPTY != board[n] && NONE == chainOf[n]) {
+				floodFill(n);
+			}
+		}
+	}
+
+	/**
+	 * Removes the chain of a point from the table (the stones stay on the board, but don't belong to any chain until they are flood filled).
+	*/
+	private void detach(int i) {
+		if(EMPTY == board[i] || NONE == chainOf[i]) {
+			return;
+		}
+		int chain = chainOf[i];
+		int j = chain;
+		do {
+			chainOf[j] = NONE;
+			j = next[j];
+		} while(j != chain);
+	}
+
+	/**
+	 * Builds a new chain from the stones connected to the given stone.
+	*/
+	private void floodFill(int start) {
+		byte color = board[start];
+		long[] keys = zobristKeys;
+		Stone stone = BOARD_SPACES[color].stone;
+		if(null == stack) {
+			stack = new short[size * size];
+		}
+		int top = 0;
+		stack[top++] = (short) start;
+		chainOf[start] = (short) start;
+		next[start] = (short) start;
+		stones[start] = 1;
+		hashes[start] = Zobrist.key(keys, start, stone);
+		while(0 < top) {
+			int i = stack[--top];
+			for(int k = 0, count = neighbors.count(i); k < count; k++) {
+				int n = neighbors.neighbor(i, k);
+				if(color == board[n] && start != chainOf[n]) {
+					chainOf[n] = (short) start;
+					next[n] = next[start]; // insert after the representative
+					next[start] = (short) n;
+					++stones[start];
+					hashes[start] ^= Zobrist.key(keys, n, stone);
+					stack[top++] = (short) n;
+				}
+			}
+		}
+		liberties[start] = (short) countLiberties(start);
+	}
+
+	/**
+	 * Merges two chains, the bigger chain's representative remains.
+	 * @return the representative of the merged chain.
+	*/
+	private int merge(int a, int b) {
+		if(a == b) {
+			return a;
+		}
+		if(stones[a] < stones[b]) {
+			int t = a;
+			a = b;
+			b = t;
+		}
+		int i = b;
+		do {
+			chainOf[i] = (short) a;
+			i = next[i];
+		} while(i != b);
+
+		short t = next[a]; // splice the two circular lists together
+		next[a] = next[b];
+		next[b] = t;
+		stones[a] += stones[b];
+		hashes[a] ^= hashes[b];
+		return a;
+	}
+
+	private int countLiberties(int chain) {
+		int stamp = newStamp();
+		int libs = 0;
+		int i = chain;
+		do {
+			for(int k = 0, count = neighbors.count(i); k < count; k++) {
+				int n = neighbors.neighbor(i, k);
+				if(EMPTY == board[n] && mark(n, stamp)) {
+					++libs;
+				}
+			}
+			i = next[i];
+		} while(i != chain);
+		return libs;
+	}
+}
@@ -0,0 +1,284 @@
+package gogame;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * A file of games with random access by game and move. The file is memory mapped, and the positions are rebuilt by replaying the packed moves,
+ * so nothing is deserialized. The file can be read by any number of threads at the same time.
+ * <pre>
+ * header: magic "GODB" (4 bytes), version (4 bytes), the number of games (4 bytes), reserved (4 bytes), the offset of the index (8 bytes)
+ * games:  board size (1 byte), the player to move first (1 byte), the number of black and white setup stones (2 * 2 bytes), the number of moves (4 bytes),
+ *         the indices of the setup stones (2 bytes each), the moves (2 bytes each: the index of the point or PASS, the WHITE bit set for white's moves)
+ * index:  the offsets of the games (8 bytes each)
+ * </pre>
+ * Usage (to convert an SGF collection): GameDatabase [input.sgf] [output.godb]
+*/
+public final class GameDatabase implements Closeable {
+	private static final int MAGIC = 0x474F4442; // "GODB"
+	private static final int VERSION = 1;
+	private static final int HEADER_SIZE = 24;
+	private static final int GAME_HEADER_SIZE = 10;
+	private static final int PASS = 0xFFF; // bigger than the index of any point (the biggest board is 52x52)
+	private static final int WHITE = 0x8000;
+	private static final int INDEX_MASK = 0x7FFF; // the bits of the point's index (or PASS) in a packed move
+	private static final long MAX_SEGMENT_SIZE = 1L << 30; // a MappedByteBuffer can't be bigger than 2 GB, so big files are mapped in segments
+
+	private final FileChannel channel;
+	private final int gameCount;
+	private final LongBuffer index;
+	private final long[] segmentStarts; // the offset of the first game of each segment
+	private final MappedByteBuffer[] segments;
+
+	/**
+	 * Maps a database file.
+	 * @param channel of the file (closed by the database).
+	 * @param maxSegmentSize the size of the mapped segments (a game bigger than this gets a segment of its own).
+	*/
+	GameDatabase(FileChannel channel, long maxSegmentSize) throws IOException {
+		this.channel = channel;
+		ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE);
+		if(MAGIC != header.getInt(0) || VERSION != header.getInt(4)) {
+			throw new IOException("Not a game database");
+		}
+		gameCount = header.getInt(8);
+		long indexOffset = header.getLong(16);
+		index = channel.map(FileChannel.MapMode.READ_ONLY, indexOffset, 8L * gameCount).asLongBuffer();
+
+		List<Long> starts = new ArrayList<>();
+		List<MappedByteBuffer> mapped = new ArrayList<>();
+		long start = HEADER_SIZE;
+		for(int game = 0; game < gameCount; game++) {
+			long end = game + 1 < gameCount ? index.get(game + 1) : indexOffset;
+			if(maxSegmentSize < end - start && start < index.get(game)) { // the game doesn't fit in the segment, it starts a new one
+				starts.add(start);
+				mapped.add(channel.map(FileChannel.MapMode.READ_ONLY, start, index.get(game) - start));
+				start = index.get(game);
+			}
+		}
+		starts.add(start);
+		mapped.add(channel.map(FileChannel.MapMode.READ_ONLY, start, indexOffset - start));
+		segmentStarts = starts.stream().mapToLong(Long::longValue).toArray();
+		segments = mapped.toArray(MappedByteBuffer[]::new);
+	}
+
+	/**
+	 * Opens a database for reading.
+	 * @param path of the file.
+	 * @return the database, it has to be closed.
+	*/
+	public static GameDatabase open(Path path) throws IOException {
+		FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+		try {
+			return new GameDatabase(channel, MAX_SEGMENT_SIZE);
+		} catch(IOException | RuntimeException e) {
+			channel.close();
+			throw e;
+		}
+	}
+
+	/**
+	 * Writes games to a new database file.
+	 * @param path of the file.
+	 * @param games to write.
+	 * @return the number of written games.
+	*/
+	public static int write(Path path, Iterator<SgfGame> games) throws IOException {
+		try(FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+			DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel), 1 << 16));
+			out.write(new byte[HEADER_SIZE]); // written at the end, when the number of games is known
+			long offset = HEADER_SIZE;
+			long[] offsets = new long[1024];
+			int count = 0;
+			while(games.hasNext()) {
+				SgfGame game = games.next();
+				if(count == offsets.length) {
+					offsets = Arrays.copyOf(offsets, 2 * count);
+				}
+				offsets[count++] = offset;
+				offset += writeGame(game, out);
+			}
+			for(int game = 0; game < count; game++) {
+				out.writeLong(offsets[game]);
+			}
+			out.flush();
+
+			ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE)
+					.putInt(MAGIC)
+					.putInt(VERSION)
+					.putInt(count)
+					.putInt(0)
+					.putLong(offset)
+					.flip();
+			channel.write(header, 0);
+			return count;
+		}
+	}
+
+	/**
+	 * @return the number of written bytes.
+	*/
+	private static int writeGame(SgfGame game, DataOutputStream out) throws IOException {
+		out.writeByte(game.size());
+		out.writeByte(game.toPlay().ordinal());
+		out.writeShort(game.black().size());
+		out.writeShort(game.white().size());
+		out.writeInt(game.moves().size());
+		for(Point p : game.black()) {
+			out.writeShort(p.index(game.size()));
+		}
+		for(Point p : game.white()) {
+			out.writeShort(p.index(game.size()));
+		}
+		for(SgfGame.Move move : game.moves()) {
+			int packed = null == move.point() ? PASS : move.point().index(game.size());
+			out.writeShort(Stone.WHITE == move.player() ? packed | WHITE : packed);
+		}
+		return GAME_HEADER_SIZE + 2 * (game.black().size() + game.white().size() + game.moves().size());
+	}
+
+	public int getGameCount() { return gameCount; }
+	int getSegmentCount() { return segments.length; }
+
+	/**
+	 * @param game the number of the game (0 &lt;= game &lt; getGameCount()).
+	 * @return the board size of the game.
+	*/
+	public int getSize(int game) {
+		return Byte.toUnsignedInt(segment(game).get(position(game)));
+	}
+
+	/**
+	 * @param game the number of the game (0 &lt;= game &lt; getGameCount()).
+	 * @return the number of moves of the game.
+	*/
+	public int getMoveCount(int game) {
+		return segment(game).getInt(position(game) + 6);
+	}
+
+	/**
+	 * Returns a position of a game.
+	 * @param game the number of the game (0 &lt;= game &lt; getGameCount()).
+	 * @param move the number of moves to play (0 is the starting position).
+	 * @return the position after the given number of moves.
+	*/
+	public GoState positionAt(int game, int move) {
+		if(move < 0 || getMoveCount(game) < move) {
+			throw new IllegalArgumentException("Invalid move number: %d (the game %d has %d moves)".formatted(move, game, getMoveCount(game)));
+		}
+		GoState[] position = new GoState[1];
+		replay(game, move, (state, m) -> position[0] = state);
+		return position[0];
+	}
+
+	/**
+	 * Replays a whole game, and visits every position of it (the same GoState, after each move). This is the cheap way to scan every position.
+	 * @param game the number of the game (0 &lt;= game &lt; getGameCount()).
+	 * @param visitor called with the position and the number of moves played, from 0 to getMoveCount(game).
+	*/
+	public void replay(int game, ObjIntConsumer<GoState> visitor) {
+		replay(game, getMoveCount(game), visitor);
+	}
+
+	private void replay(int game, int moves, ObjIntConsumer<GoState> visitor) {
+		ByteBuffer buffer = segment(game);
+		int position = position(game);
+		int size = Byte.toUnsignedInt(buffer.get(position));
+		Stone first = Stone.values()[buffer.get(position + 1)];
+		int blackCount = Short.toUnsignedInt(buffer.getShort(position + 2));
+		int whiteCount = Short.toUnsignedInt(buffer.getShort(position + 4));
+		position += GAME_HEADER_SIZE;
+
+		GoState state = new GoState(size);
+		for(int k = 0; k < blackCount + whiteCount; k++, position += 2) {
+			int i = Short.toUnsignedInt(buffer.getShort(position));
+			state.setBoardSpace(i % size, i / size, k < blackCount ? BoardSpace.BLACK : BoardSpace.WHITE);
+		}
+		state.turn = first;
+		visitor.accept(state, 0);
+		for(int m = 1; m <= moves; m++, position += 2) {
+			int packed = Short.toUnsignedInt(buffer.getShort(position));
+			int i = packed & INDEX_MASK;
+			state.turn = 0 != (packed & WHITE) ? Stone.WHITE : Stone.BLACK;
+			state.makeMove(PASS == i ? null : Point.of(i % size, i / size));
+			if(m != state.getMoveCount()) {
+				throw new IllegalStateException("Illegal move %d in the game %d".formatted(m, game));
+			}
+			visitor.accept(state, m);
+		}
+	}
+
+	private ByteBuffer segment(int game) {
+		return segments[segmentIndex(game)];
+	}
+
+	/**
+	 * @return the position of the game in its segment.
+	*/
+	private int position(int game) {
+		return (int) (index.get(game) - segmentStarts[segmentIndex(game)]);
+	}
+
+	private int segmentIndex(int game) {
+		int k = Arrays.binarySearch(segmentStarts, index.get(game));
+		return 0 <= k ? k : -k - 2; // the last segment, that starts before the game
+	}
+
+	@Override
+	public void close() throws IOException {
+		channel.close();
+	}
+
+	public static void main(String[] args) throws IOException {
+		if(2 != args.length) {
+			System.err.println("Usage: GameDatabase [input.sgf] [output.godb]");
+			System.exit(1);
+		}
+		try(SgfReader reader = SgfReader.open(Path.of(args[0]))) {
+			int[] skipped = new int[1];
+			Iterator<SgfGame> games = new Iterator<>() { // the games with errors are skipped
+				private SgfGame next;
+
+				@Override
+				public boolean hasNext() {
+					while(null == next) {
+						try {
+							if(!reader.hasNext()) {
+								return false;
+							}
+							next = reader.next();
+						} catch(IllegalArgumentException e) {
+							System.err.println(e.getMessage());
+							++skipped[0];
+						}
+					}
+					return true;
+				}
+
+				@Override
+				public SgfGame next() {
+					hasNext();
+					SgfGame game = next;
+					next = null;
+					return game;
+				}
+			};
+			int count = write(Path.of(args[1]), games);
+			System.out.println("%d games written, %d skipped".formatted(count, skipped[0]));
+		}
+	}
+}
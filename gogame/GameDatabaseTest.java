@@ -0,0 +1,82 @@
+package gogame;
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("GameDatabase tests")
+public class GameDatabaseTest {
+	private static final String COLLECTION = """
+		(;GM[1]SZ[9]AB[cc][gg];W[ee];B[ec];W[tt];B[ge])
+		(;GM[1]SZ[19];B[pd];W[dp];B[pp];W[dd])
+		(;GM[1]SZ[13])
+		""";
+	
+	@DisplayName("Testing, that the positions of the database are the same, as the positions of the replayed SGF games.")
+	@Test
+	public void testPositionAt() throws IOException {
+		List<SgfGame> games = SgfReader.parse(COLLECTION);
+		Path path = Files.createTempFile("testGames", ".godb");
+		path.toFile().deleteOnExit();
+		assertEquals(3, GameDatabase.write(path, games.iterator()));
+		
+		try(GameDatabase database = GameDatabase.open(path)) {
+			assertAll(
+				() -> assertEquals(3, database.getGameCount()),
+				() -> assertEquals(List.of(9, 19, 13), List.of(database.getSize(0), database.getSize(1), database.getSize(2))),
+				() -> assertEquals(List.of(4, 4, 0), List.of(database.getMoveCount(0), database.getMoveCount(1), database.getMoveCount(2))),
+				() -> assertEquals(games.get(0).toGoState(), database.positionAt(0, 4)),
+				() -> assertEquals(games.get(1).toGoState(), database.positionAt(1, 4)),
+				() -> assertEquals(new GoState(13), database.positionAt(2, 0)),
+				() -> assertThrows(IllegalArgumentException.class, () -> database.positionAt(1, 5))
+			);
+			
+			List<Integer> moveNumbers = new ArrayList<>();
+			List<GoState> positions = new ArrayList<>();
+			database.replay(1, (state, move) -> {
+				moveNumbers.add(move);
+				positions.add(new GoState(state));
+			});
+			assertAll(
+				() -> assertEquals(List.of(0, 1, 2, 3, 4), moveNumbers),
+				() -> assertEquals(database.positionAt(1, 2), positions.get(2))
+			);
+		}
+	}
+	
+	@DisplayName("Testing, that the games are read correctly, when the file is mapped in many small segments.")
+	@Test
+	public void testSegments() throws IOException {
+		List<SgfGame> games = SgfReader.parse(COLLECTION.repeat(4));
+		Path path = Files.createTempFile("testSegments", ".godb");
+		path.toFile().deleteOnExit();
+		GameDatabase.write(path, games.iterator());
+		
+		try(GameDatabase database = new GameDatabase(FileChannel.open(path, StandardOpenOption.READ), 40)) { // every segment holds one or two games
+			assertTrue(games.size() / 2 <= database.getSegmentCount());
+			for(int game = 0; game < games.size(); game++) {
+				SgfGame sgfGame = games.get(game);
+				int number = game;
+				assertAll(
+					() -> assertEquals(sgfGame.size(), database.getSize(number)),
+					() -> assertEquals(sgfGame.moves().size(), database.getMoveCount(number)),
+					() -> assertEquals(sgfGame.toGoState(), database.positionAt(number, sgfGame.moves().size()))
+				);
+			}
+		}
+		try(GameDatabase database = GameDatabase.open(path)) {
+			assertEquals(1, database.getSegmentCount());
+		}
+	}
+}
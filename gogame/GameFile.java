@@ -0,0 +1,247 @@
+package gogame;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InvalidClassException;
+import java.io.ObjectInputStream;
+import java.io.ObjectStreamClass;
+import java.io.ObjectStreamConstants;
+import java.io.Serializable;
+import java.util.Set;
+
+/**
+ * The binary format of the saved games (".go" files). A file stores the starting position and the moves,
+ * the history of the game is rebuilt by replaying the moves when the game is loaded:
+ * <pre>
+ * magic "GOGM" (4 bytes), version (1 byte), board size (1 byte), flags (1 byte)
+ * if SETUP:       the starting board (packed), the player to move (1 byte), the captured stones of black and white (2 * 4 bytes),
+ *                 the number of states before the starting position (4 bytes), and their Zobrist hashes (8 bytes each)
+ * the number of moves (4 bytes), and the moves (2 bytes each: the index of the point or PASS, the WHITE bit set for white's moves)
+ * if FINAL_BOARD: the final board (packed), to check the replayed game
+ * </pre>
+ * A packed board stores 2 bits (BoardSpace ordinal) per point, 4 points per byte, in the order of the points' indices.
+ * The moves of version 1 didn't store the player (the players were assumed to alternate), they are still read.
+ * The files written by the earlier versions (Java serialization of the whole GoState) are recognized by their stream header, and can still be read.
+*/
+final class GameFile {
+	private static final int MAGIC = 0x474F474D; // "GOGM"
+	private static final int VERSION = 2;
+	private static final int ALTERNATING_VERSION = 1; // the moves don't store the player
+	private static final int SETUP = 1; // the game doesn't start from the empty board with black to move
+	private static final int FINAL_BOARD = 2;
+	private static final int PASS = 0x7FFF;
+	private static final int ALTERNATING_PASS = 0xFFFF;
+	private static final int WHITE = 0x8000;
+	private static final int INDEX_MASK = 0x7FFF;
+	private static final BoardSpace[] BOARD_SPACES = BoardSpace.values();
+	
+	private GameFile() {}
+	
+	/**
+	 * Writes a game in the current format.
+	 * @param state the game to write.
+	 * @param out the output, it's not closed.
+	*/
+	static void write(GoState state, DataOutputStream out) throws IOException {
+		GoState start = new GoState(state);
+		while(start.unmakeMove()); // take back every move, to get the starting position
+		Set<Long> history = start.getPrevStates();
+		boolean setup = Stone.BLACK != start.turn || 0 != start.getBlackCaptured() || 0 != start.getWhiteCaptured() || !history.isEmpty()
+				|| 0 != start.getZobristHash(); // the hash of the empty board with black to move is 0
+		
+		out.writeInt(MAGIC);
+		out.writeByte(VERSION);
+		out.writeByte(state.getSize());
+		out.writeByte((setup ? SETUP : 0) | FINAL_BOARD);
+		if(setup) {
+			writeBoard(start, out);
+			out.writeByte(start.turn.ordinal());
+			out.writeInt(start.getBlackCaptured());
+			out.writeInt(start.getWhiteCaptured());
+			out.writeInt(history.size());
+			for(long hash : history) {
+				out.writeLong(hash);
+			}
+		}
+		out.writeInt(state.getMoveCount());
+		for(int r = 0; r < state.getMoveCount(); r++) {
+			int move = state.getMove(r);
+			int packed = UndoStack.PASS == move ? PASS : move;
+			out.writeShort(Stone.WHITE == state.getMovePlayer(r) ? packed | WHITE : packed); // the players don't always alternate (SGF setups, GoState.turn changes)
+		}
+		writeBoard(state, out);
+	}
+	
+	/**
+	 * Reads a game, in the current format or in the format of the earlier versions.
+	 * @param in the input, it must support mark/reset, it's not closed.
+	 * @return the loaded game.
+	*/
+	static GoState read(InputStream in) throws IOException, ClassNotFoundException {
+		in.mark(2);
+		int header = new DataInputStream(in).readUnsignedShort();
+		in.reset();
+		if(ObjectStreamConstants.STREAM_MAGIC == (short) header) {
+			return readSerialized(in);
+		}
+		
+		DataInputStream data = new DataInputStream(in);
+		if(MAGIC != data.readInt()) {
+			throw new IOException("Not a saved game");
+		}
+		int version = data.readUnsignedByte();
+		if(VERSION != version && ALTERNATING_VERSION != version) {
+			throw new IOException("Unsupported version: %d".formatted(version));
+		}
+		int size = data.readUnsignedByte();
+		int flags = data.readUnsignedByte();
+		GoState state = new GoState(size);
+		if(0 != (flags & SETUP)) {
+			byte[] board = readBoard(size, data);
+			for(int i = 0; i < board.length; i++) {
+				state.setBoardSpace(i % size, i / size, BOARD_SPACES[board[i]]);
+			}
+			state.turn = Stone.values()[data.readUnsignedByte()];
+			state.setCaptured(data.readInt(), data.readInt());
+			for(int k = data.readInt(); 0 < k; k--) {
+				state.addPrevState(data.readLong());
+			}
+		}
+		
+		int moveCount = data.readInt();
+		for(int r = 0; r < moveCount; r++) {
+			int packed = data.readUnsignedShort();
+			int move;
+			if(ALTERNATING_VERSION == version) {
+				move = ALTERNATING_PASS == packed ? PASS : packed;
+			} else {
+				move = packed & INDEX_MASK;
+				state.turn = 0 != (packed & WHITE) ? Stone.WHITE : Stone.BLACK;
+			}
+			Point p = PASS == move ? null : Point.of(move % size, move / size);
+			if(null != p && !state.isLegalMove(p)) {
+				throw new IOException("Illegal move %d: (%d, %d)".formatted(r + 1, p.x, p.y));
+			}
+			state.makeMove(p);
+		}
+		
+		if(0 != (flags & FINAL_BOARD)) {
+			byte[] board = readBoard(size, data);
+			for(int i = 0; i < board.length; i++) {
+				if(state.getBoardSpace(i).ordinal() != board[i]) {
+					throw new IOException("The replayed game doesn't match the saved board");
+				}
+			}
+		}
+		return state;
+	}
+	
+	private static void writeBoard(GoState state, DataOutputStream out) throws IOException {
+		int points = state.getSize() * state.getSize();
+		for(int i = 0; i < points; i += 4) {
+			int packed = 0;
+			for(int k = 0; k < 4 && i + k < points; k++) {
+				packed |= state.getBoardSpace(i + k).ordinal() << (2 * k);
+			}
+			out.writeByte(packed);
+		}
+	}
+	
+	private static byte[] readBoard(int size, DataInputStream in) throws IOException {
+		byte[] board = new byte[size * size];
+		for(int i = 0; i < board.length; i += 4) {
+			int packed = in.readUnsignedByte();
+			for(int k = 0; k < 4 && i + k < board.length; k++) {
+				board[i + k] = (byte) ((packed >> (2 * k)) & 3);
+				if(BOARD_SPACES.length <= board[i + k]) {
+					throw new IOException("Invalid board space: %d".formatted(board[i + k]));
+				}
+			}
+		}
+		return board;
+	}
+	
+	/**
+	 * Reads a game saved with Java serialization: either a GoState of the current class version,
+	 * or a GoState of the first version (with a BoardSpace[][] board, and the previous states as a set of GoStates).
+	*/
+	private static GoState readSerialized(InputStream in) throws IOException, ClassNotFoundException {
+		try(ObjectInputStream objectIn = new LegacyObjectInputStream(in)) {
+			Object o = objectIn.readObject();
+			if(o instanceof LegacyGoState legacy) {
+				return legacy.toGoState();
+			}
+			return (GoState) o;
+		}
+	}
+	
+	/**
+	 * Reads the GoStates of the first version as LegacyGoStates (the class descriptor of the stream is replaced by the local one, they have the same fields).
+	*/
+	private static final class LegacyObjectInputStream extends ObjectInputStream {
+		LegacyObjectInputStream(InputStream in) throws IOException {
+			super(in);
+		}
+		
+		@Override
+		protected ObjectStreamClass readClassDescriptor() throws IOException, ClassNotFoundException {
+			ObjectStreamClass desc = super.readClassDescriptor();
+			if(GoState.class.getName().equals(desc.getName()) && LegacyGoState.serialVersionUID == desc.getSerialVersionUID()) {
+				return ObjectStreamClass.lookup(LegacyGoState.class);
+			}
+			return desc;
+		}
+	}
+	
+	/**
+	 * The serialized fields of the first version of GoState.
+	*/
+	@SuppressWarnings("unused")
+	private static final class LegacyGoState implements Serializable {
+		private static final long serialVersionUID = 1;
+		
+		private BoardSpace[][] board;
+		private int blackCaptured;
+		private int whiteCaptured;
+		private Stone turn;
+		private Set<LegacyGoState> prevStates;
+		
+		GoState toGoState() throws InvalidClassException {
+			if(null == board || null == turn || null == prevStates) {
+				throw new InvalidClassException(GoState.class.getName(), "Incomplete legacy game");
+			}
+			int size = board.length;
+			GoState state = new GoState(size);
+			for(int y = 0; y < size; y++) {
+				for(int x = 0; x < size; x++) {
+					state.setBoardSpace(x, y, board[y][x]);
+				}
+			}
+			state.turn = turn;
+			state.setCaptured(blackCaptured, whiteCaptured);
+			for(LegacyGoState prevState : prevStates) {
+				state.addPrevState(prevState.hash());
+			}
+			return state;
+		}
+		
+		/**
+		 * @return the Zobrist hash of the state, as GoState.getZobristHash would compute it.
+		*/
+		private long hash() {
+			int size = board.length;
+			long[] keys = Zobrist.keys(size);
+			long hash = Stone.WHITE == turn ? Zobrist.WHITE_TO_MOVE : 0;
+			for(int y = 0; y < size; y++) {
+				for(int x = 0; x < size; x++) {
+					if(BoardSpace.EMPTY != board[y][x]) {
+						hash ^= Zobrist.key(keys, y * size + x, board[y][x].stone);
+					}
+				}
+			}
+			return hash;
+		}
+	}
+}
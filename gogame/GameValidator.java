@@ -0,0 +1,215 @@
+package gogame;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+import java.util.zip.ZipFile;
+
+/**
+ * Replays games through the rules of GoState, and reports the illegal moves (with the reason: occupied point, suicide or superko),
+ * the captured stones, and the time of every game. The games are replayed in parallel on virtual threads, while they are read one by one,
+ * so any number of games can be validated.
+ * The inputs can be SGF collections (".sgf"), zip archives of SGF collections (".zip"), saved games (".go"), or directories of these files.
+ * Usage: GameValidator [-v] [file or directory]...
+ * (with -v every game is reported, otherwise only the invalid ones). The exit code is 1, if an invalid game was found.
+*/
+public final class GameValidator {
+	private static final int MAX_PENDING_PER_PROCESSOR = 64; // the games read ahead, while the earlier games are replayed
+
+	/**
+	 * The result of replaying a game.
+	 * @param source where the game was read from.
+	 * @param moves the number of moves replayed (until the first illegal move).
+	 * @param blackCaptured the stones captured by black.
+	 * @param whiteCaptured the stones captured by white.
+	 * @param nanos the time of the replay.
+	 * @param problem the reason, why the game is invalid, or null if it's valid.
+	*/
+	public record Report(String source, int moves, int blackCaptured, int whiteCaptured, long nanos, String problem) {
+		public boolean isValid() {
+			return null == problem;
+		}
+
+		@Override
+		public String toString() {
+			return "%s: %s, %d moves, captured by black: %d, by white: %d, %.1f us".formatted(
+					source, isValid() ? "OK" : problem, moves, blackCaptured, whiteCaptured, nanos / 1e3);
+		}
+	}
+
+	private final boolean verbose;
+	private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+	private final Semaphore pending = new Semaphore(MAX_PENDING_PER_PROCESSOR * Runtime.getRuntime().availableProcessors());
+	private final LongAdder games = new LongAdder();
+	private final LongAdder invalidGames = new LongAdder();
+	private final LongAdder moves = new LongAdder();
+	private final LongAdder replayNanos = new LongAdder();
+	private volatile long maxNanos;
+	private String slowestSource; // guarded by "this", together with the updates of maxNanos
+
+	private GameValidator(boolean verbose) {
+		this.verbose = verbose;
+	}
+
+	/**
+	 * Replays a game.
+	 * @param source where the game was read from (for the report).
+	 * @param game to replay.
+	 * @return the report of the game.
+	*/
+	public static Report validate(String source, SgfGame game) {
+		long start = System.nanoTime();
+		SgfGame.Replay replay = game.replay();
+		GoState state = replay.state();
+		SgfGame.Move illegal = replay.illegal();
+		String problem = null == illegal ? null : "illegal move %d: %s %s (%s)".formatted(replay.played() + 1, illegal.player(), illegal.point(), reason(state, illegal.point()));
+		return new Report(source, replay.played(), state.getBlackCaptured(), state.getWhiteCaptured(), System.nanoTime() - start, problem);
+	}
+
+	/**
+	 * Finds out, why a move is illegal.
+	*/
+	private static String reason(GoState state, Point p) {
+		if(!state.test(p)) {
+			return "outside of the board";
+		}
+		if(BoardSpace.EMPTY != state.getBoardSpace(p)) {
+			return "occupied";
+		}
+		state.placeStone(p); // try the move without the superko check
+		boolean suicide = BoardSpace.EMPTY == state.getBoardSpace(p);
+		state.unmakeMove();
+		return suicide ? "suicide" : "superko";
+	}
+
+	/**
+	 * Validates every game of a file or directory.
+	*/
+	private void validatePath(Path path) throws IOException {
+		if(Files.isDirectory(path)) {
+			try(Stream<Path> files = Files.walk(path)) {
+				for(Path file : files.filter(Files::isRegularFile).sorted().toList()) {
+					validateFile(file);
+				}
+			}
+		} else {
+			validateFile(path);
+		}
+	}
+
+	private void validateFile(Path file) throws IOException {
+		String name = file.getFileName().toString().toLowerCase();
+		if(name.endsWith(".sgf")) {
+			try(SgfReader reader = SgfReader.open(file)) {
+				validateCollection(file.toString(), reader);
+			}
+		} else if(name.endsWith(".zip")) {
+			try(ZipFile zip = new ZipFile(file.toFile())) {
+				for(var entry : zip.stream().filter(entry -> entry.getName().toLowerCase().endsWith(".sgf")).toList()) {
+					try(SgfReader reader = new SgfReader(new InputStreamReader(zip.getInputStream(entry), StandardCharsets.UTF_8))) {
+						validateCollection("%s!%s".formatted(file, entry.getName()), reader);
+					}
+				}
+			}
+		} else if(name.endsWith(".go")) {
+			try {
+				SgfGame game = SgfGame.of(GoState.loadGame(file.toFile()));
+				submit(file.toString(), game);
+			} catch(IllegalArgumentException e) {
+				report(new Report(file.toString(), 0, 0, 0, 0, e.getMessage()));
+			}
+		}
+	}
+
+	private void validateCollection(String source, SgfReader reader) {
+		int number = 0;
+		while(true) {
+			++number;
+			try {
+				if(!reader.hasNext()) {
+					return;
+				}
+				submit("%s#%d".formatted(source, number), reader.next());
+			} catch(IllegalArgumentException e) { // the game couldn't be parsed
+				report(new Report("%s#%d".formatted(source, number), 0, 0, 0, 0, e.getMessage()));
+			} catch(UncheckedIOException e) {
+				report(new Report("%s#%d".formatted(source, number), 0, 0, 0, 0, e.getCause().toString()));
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Replays a game on a virtual thread (waits, if too many games are pending).
+	*/
+	private void submit(String source, SgfGame game) {
+		pending.acquireUninterruptibly();
+		executor.execute(() -> {
+			try {
+				report(validate(source, game));
+			} finally {
+				pending.release();
+			}
+		});
+	}
+
+	private void report(Report report) {
+		games.increment();
+		moves.add(report.moves());
+		replayNanos.add(report.nanos());
+		if(report.nanos() > maxNanos) { // rarely true, so the lock is rarely taken
+			synchronized(this) {
+				if(report.nanos() > maxNanos) {
+					maxNanos = report.nanos();
+					slowestSource = report.source();
+				}
+			}
+		}
+		if(!report.isValid()) {
+			invalidGames.increment();
+		}
+		if(verbose || !report.isValid()) {
+			synchronized(System.out) {
+				System.out.println(report);
+			}
+		}
+	}
+
+	public static void main(String[] args) throws IOException {
+		boolean verbose = 0 < args.length && "-v".equals(args[0]);
+		List<String> paths = List.of(args).subList(verbose ? 1 : 0, args.length);
+		if(paths.isEmpty()) {
+			System.err.println("Usage: GameValidator [-v] [file or directory]...");
+			System.exit(2);
+		}
+
+		GameValidator validator = new GameValidator(verbose);
+		long start = System.nanoTime();
+		try(validator.executor) {
+			for(String path : paths) {
+				validator.validatePath(Path.of(path));
+			}
+		} // waits for the pending games
+		double seconds = (System.nanoTime() - start) / 1e9;
+
+		long gameCount = validator.games.sum();
+		System.out.println("%d games (%d invalid), %d moves in %.2f s: %.0f games/s, %.0f moves/s".formatted(
+				gameCount, validator.invalidGames.sum(), validator.moves.sum(), seconds, gameCount / seconds, validator.moves.sum() / seconds));
+		if(0 < gameCount) {
+			synchronized(validator) {
+				System.out.println("Replay time per game: mean %.1f us, max %.1f us (%s)".formatted(
+						validator.replayNanos.sum() / 1e3 / gameCount, validator.maxNanos / 1e3, validator.slowestSource));
+			}
+		}
+		System.exit(0 == validator.invalidGames.sum() ? 0 : 1);
+	}
+}
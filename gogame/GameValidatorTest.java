@@ -0,0 +1,54 @@
+package gogame;
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+@DisplayName("GameValidator tests")
+public class GameValidatorTest {
+	@DisplayName("Testing, that the validator reports the first illegal move with its reason, and the captures of the valid games.")
+	@ParameterizedTest(name = "{0}")
+	@CsvSource(delimiter = '|', value = {
+		"(;SZ[9];B[aa];W[ba];B[ca];W[ab];B[bb];W[ac])                 | 6 | 0 | 1 |",
+		"(;SZ[9];B[aa];W[aa])                                         | 1 | 0 | 0 | illegal move 2: WHITE x: 0 y: 0 (occupied)",
+		"(;SZ[9]AB[ba][ab];W[aa])                                     | 0 | 0 | 0 | illegal move 1: WHITE x: 0 y: 0 (suicide)",
+		"(;SZ[9]AB[ba][ab][bc]AW[bb][ca][db][cc];B[cb];W[bb])          | 1 | 1 | 0 | illegal move 2: WHITE x: 1 y: 1 (superko)",
+		"(;SZ[9];B[aa];B[ba];W[ab];W[bb];B[aa])                       | 4 | 0 | 0 | illegal move 5: BLACK x: 0 y: 0 (occupied)",
+	})
+	public void testValidate(String sgf, int moves, int blackCaptured, int whiteCaptured, String problem) {
+		GameValidator.Report report = GameValidator.validate("test", SgfReader.parse(sgf).get(0));
+		assertAll(
+			() -> assertEquals(moves, report.moves()),
+			() -> assertEquals(blackCaptured, report.blackCaptured()),
+			() -> assertEquals(whiteCaptured, report.whiteCaptured()),
+			() -> assertEquals(problem, report.problem()),
+			() -> assertTrue(0 < report.nanos())
+		);
+	}
+	
+	@DisplayName("Testing, that the validator and SgfGame.toGoState replay the moves the same way, and stop at the same illegal move.")
+	@Test
+	public void testSameReplayAsToGoState() {
+		SgfGame valid = SgfReader.parse("(;SZ[9]AB[cc];W[aa];W[ba];B[ab];B[bb];W[ca])").get(0); // the players don't alternate
+		GameValidator.Report report = GameValidator.validate("valid", valid);
+		GoState state = valid.toGoState();
+		assertAll(
+			() -> assertTrue(report.isValid()),
+			() -> assertEquals(state.getMoveCount(), report.moves()),
+			() -> assertEquals(state.getBlackCaptured(), report.blackCaptured()),
+			() -> assertEquals(state.getWhiteCaptured(), report.whiteCaptured())
+		);
+		
+		SgfGame invalid = SgfReader.parse("(;SZ[9];B[aa];B[ba];W[aa])").get(0);
+		IllegalArgumentException e = assertThrows(IllegalArgumentException.class, invalid::toGoState);
+		assertAll(
+			() -> assertEquals("Illegal move 3: WHITE (x: 0 y: 0)", e.getMessage()),
+			() -> assertEquals("illegal move 3: WHITE x: 0 y: 0 (occupied)", GameValidator.validate("invalid", invalid).problem())
+		);
+	}
+}
@@ -1,21 +1,31 @@
 package gogame;
 
+import java.awt.AlphaComposite;
 import java.awt.Color;
 import java.awt.Graphics;
+import java.awt.Graphics2D;
 import java.awt.event.ComponentEvent;
 import java.awt.event.ComponentListener;
 import java.awt.event.MouseEvent;
 import java.awt.event.MouseListener;
 import java.awt.event.MouseMotionListener;
+import java.awt.image.BufferedImage;
 import java.io.File;
 import java.util.Arrays;
+import java.util.BitSet;
 import java.util.HashSet;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
 import java.util.function.Consumer;
 
 import javax.swing.JComponent;
+import javax.swing.SwingWorker;
 
-public class GoPane extends JComponent implements MouseListener, MouseMotionListener, ComponentListener {
+import gogame.engine.DeadStoneEstimator;
+import gogame.engine.MctsPlayer;
+import gogame.engine.SearchBudget;
+
+public class GoPane extends JComponent implements MouseListener, MouseMotionListener, ComponentListener, MoveListener {
 	private GoState state;
 	private int pixelsPerSpace;
 	private int pixelSize;
@@ -23,6 +33,16 @@ public class GoPane extends JComponent implements MouseListener, MouseMotionList
 	private Consumer<String> updateLabel;
 	public Runnable endGame;
 	public boolean isActive;
+	private MctsPlayer engine; // the computer opponent, null if both players are human
+	private Stone engineColor;
+	private SearchBudget engineBudget;
+	private SwingWorker<Point, Void> engineSearch; // the running search, null if the engine isn't thinking
+	private BitSet legalMoves; // the legal points of the player to move, null until they are computed in the background
+	private SwingWorker<BitSet, Void> legalMovesSearch; // the running computation of legalMoves
+	private int positionVersion; // incremented by every change of the position, so an outdated computation is dropped
+	private Point libsPoint; // the hovered point, that hoveredLibs belong to (null if they aren't computed)
+	private Set<Point> hoveredLibs = Set.of();
+	private BufferedImage boardLayer; // the grid and the stones, null if it has to be drawn again completely
 
 	public GoPane(Consumer<String> updateLabel, GoState state) {
 		this.updateLabel = updateLabel;
@@ -37,22 +57,161 @@ public class GoPane extends JComponent implements MouseListener, MouseMotionList
 	}
 
 	public void setGoState(GoState state) {
+		if (null != this.state)
+			this.state.removeMoveListener(this);
 		this.state = state;
+		state.addMoveListener(this); // the moves update the board layer
+		positionChanged();
 		componentResized(null);
 	}
 
+	/**
+	 * Drops the cached legal moves and liberties after a change of the position, and starts computing the new legal moves in the background.
+	 * Until they are computed, the hovered points are checked by isLegalMove.
+	 */
+	private void positionChanged() {
+		int version = ++positionVersion;
+		setHover(null);
+		legalMoves = null;
+		libsPoint = null;
+		if (null != legalMovesSearch)
+			legalMovesSearch.cancel(false);
+
+		GoState position = new GoState(state); // the computation reads its own copy, not the state shown on the pane
+		legalMovesSearch = new SwingWorker<>() {
+			@Override
+			protected BitSet doInBackground() {
+				return position.legalMoves();
+			}
+
+			@Override
+			protected void done() {
+				if (version != positionVersion || isCancelled())
+					return; // the position changed during the computation
+				legalMovesSearch = null;
+				try {
+					legalMoves = get();
+				} catch (InterruptedException | ExecutionException e) {
+					throw new IllegalStateException("Failed to compute the legal moves", e);
+				}
+			}
+		};
+		legalMovesSearch.execute();
+	}
+
+	private boolean isLegal(Point p) {
+		if (!state.test(p))
+			return false;
+		return null != legalMoves ? legalMoves.get(p.index(state.getSize())) : state.isLegalMove(p);
+	}
+
 	public void toggle() {
 		isActive = !isActive;
-		if (isActive)
-			updateLabel.accept(state.toString());
+		if (isActive) {
+			updateLabel.accept(labelText());
+			playEngineMove();
+		}
 	}
 
 	public void pass() {
-		if (state.makeMove(null)) {
-			endGame.run();
-		}
-		updateLabel.accept(state.toString());
-		repaint();
+		if (isEngineTurn())
+			return;
+		boolean ended = state.makeMove(null);
+		positionChanged();
+		updateLabel.accept(labelText());
+		if (ended)
+			finishGame();
+		playEngineMove();
+	}
+
+	/**
+	 * Ends the game, and shows its score (by area, without the estimated dead stones).
+	 * The dead stones are estimated by playouts, so the score is computed in the background.
+	 */
+	private void finishGame() {
+		endGame.run();
+		updateLabel.accept("%s%nScoring...".formatted(state.toString()));
+
+		GoState scoredState = state;
+		GoState position = new GoState(state); // the estimator reads its own copy, not the state shown on the pane
+		new SwingWorker<Score, Void>() {
+			@Override
+			protected Score doInBackground() {
+				return new DeadStoneEstimator(position.getSize()).score(position, ScoringRule.AREA, MctsPlayer.DEFAULT_KOMI);
+			}
+
+			@Override
+			protected void done() {
+				if (scoredState != state)
+					return; // a new game was started during the scoring
+
+				try {
+					Score score = get();
+					String result = null == score.winner() ? "tie"
+							: "%s wins by %.1f".formatted(Stone.BLACK == score.winner() ? "Black" : "White", Math.abs(score.margin()));
+					updateLabel.accept("%s%n%s - %s".formatted(state.toString(), score.toString(), result));
+				} catch (InterruptedException | ExecutionException e) {
+					throw new IllegalStateException("Failed to score the game", e);
+				}
+			}
+		}.execute();
+	}
+
+	/**
+	 * Sets the computer opponent.
+	 * @param color the color the engine plays, or null to play without the engine.
+	 * @param engine the engine player.
+	 * @param budget the engine's search limit per move.
+	 */
+	public void setEngine(Stone color, MctsPlayer engine, SearchBudget budget) {
+		this.engineColor = color;
+		this.engine = null == color ? null : engine;
+		this.engineBudget = budget;
+	}
+
+	private boolean isEngineTurn() {
+		return null != engine && (state.turn == engineColor || null != engineSearch);
+	}
+
+	/**
+	 * Starts the engine's search in the background, if it's the engine's turn. The move is played when the search is done.
+	 */
+	private void playEngineMove() {
+		if (!isActive || null == engine || state.turn != engineColor || null != engineSearch)
+			return;
+
+		GoState searchedState = state;
+		GoState position = new GoState(state); // the search reads its own copy, not the state shown on the pane
+		engineSearch = new SwingWorker<>() {
+			@Override
+			protected Point doInBackground() {
+				return engine.bestMove(position, engineBudget);
+			}
+
+			@Override
+			protected void done() {
+				engineSearch = null;
+				if (searchedState != state || !isActive)
+					return; // a new game was started (or the game ended) during the search
+
+				try {
+					boolean ended = state.makeMove(get());
+					positionChanged();
+					updateLabel.accept(labelText());
+					if (ended)
+						finishGame();
+				} catch (InterruptedException | ExecutionException e) {
+					throw new IllegalStateException("The engine failed to choose a move", e);
+				}
+			}
+		};
+		engineSearch.execute();
+	}
+
+	private String labelText() {
+		if (null == engine || 0 == engine.getLastPlayouts())
+			return state.toString();
+		return "%s%nEngine: %d playouts (%.0f playouts/s)".formatted(state.toString(), engine.getLastPlayouts(), engine.getLastPlayoutsPerSecond());
 	}
 
 	public void saveGame(File file) {
@@ -63,13 +222,13 @@ public class GoPane extends JComponent implements MouseListener, MouseMotionList
 		setGoState(GoState.loadGame(file));
 	}
 
-	private void drawStone(Graphics g, Point p, Color on, Color bg) {
+	private void drawStone(Graphics g, int x, int y, Color on, Color bg) {
 		var pps = pixelsPerSpace;
 
 		g.setColor(bg);
-		g.fillOval(p.x * pps, p.y * pps, pps, pps);
+		g.fillOval(x * pps, y * pps, pps, pps);
 		g.setColor(on);
-		g.fillOval(p.x * pps + pps*33/100, p.y * pps + pps*33/100, pps / 3, pps / 3);
+		g.fillOval(x * pps + pps*33/100, y * pps + pps*33/100, pps / 3, pps / 3);
 	}
 
 	private void drawLib(Graphics g, int x, int y, Color on) {
@@ -78,73 +237,138 @@ public class GoPane extends JComponent implements MouseListener, MouseMotionList
 		g.drawOval(x * pps + pps*33/100, y * pps + pps*33/100, pps / 3, pps / 3);
 	}
 
+	/**
+	 * Paints the board layer (drawn completely only after a resize or a new game), then the hovered stone and liberties on it.
+	 * A move repaints only the spaces it changed, so the clip is usually a few spaces.
+	 */
 	protected void paintComponent(Graphics g) {
 		super.paintComponent(g);
-		g.setColor(Color.GRAY);
+		if (null == boardLayer)
+			drawBoardLayer();
+		g.drawImage(boardLayer, 0, 0, null);
+		drawHover(g);
+	}
 
-		drawGridLines(g);
-		drawStones(g);
+	/**
+	 * Draws every space of the board on a new board layer.
+	 */
+	private void drawBoardLayer() {
+		int size = state.getSize();
+		boardLayer = new BufferedImage(Math.max(1, pixelSize), Math.max(1, pixelSize), BufferedImage.TYPE_INT_ARGB);
+		Graphics2D g = boardLayer.createGraphics();
+		for (int i = 0; i < size * size; i++) {
+			drawSpace(g, i % size, i / size, state.getBoardSpace(i));
+		}
+		g.dispose();
 	}
 
-	private void drawStones(Graphics g) {
-		Set<Point> libs = getHoveredLibs();
+	/**
+	 * Draws the spaces of the board layer, that a move (or its undo) changed: the placed stone and the captured ones, and repaints only them.
+	 */
+	private void updateBoardLayer(MoveDelta delta) {
+		if (null == boardLayer)
+			return; // it will be drawn completely
+		Graphics2D g = boardLayer.createGraphics();
+		if (!delta.isPass())
+			updateSpace(g, delta.point());
+		delta.captured().forEach(p -> updateSpace(g, p));
+		g.dispose();
+	}
 
-		for (int x = 0; x < state.board.length; x++) {
-			for (int y = 0; y < state.board.length; y++) {
-				var boardSpace = state.board[y][x];
-				var bg = Color.LIGHT_GRAY;
+	private void updateSpace(Graphics2D g, Point p) {
+		drawSpace(g, p.x, p.y, state.getBoardSpace(p));
+		repaintSpace(p.x, p.y);
+	}
 
-				if (boardSpace == BoardSpace.EMPTY) {
-					if (isActive && hover != null && hover.x == x && hover.y == y) {
-						var on = state.turn == Stone.BLACK ? Color.BLACK : Color.WHITE;
-						drawStone(g, hover, on, bg);
-					} else if (libs.contains(new Point(x, y))) {
-						var on = state.turn == Stone.BLACK ? Color.BLACK : Color.RED;
-						drawLib(g, x, y, on);
-					}
-					continue;
-				}
+	@Override
+	public void moveMade(MoveDelta delta) {
+		updateBoardLayer(delta);
+	}
 
-				var on = boardSpace == BoardSpace.BLACK ? Color.BLACK : Color.WHITE;
-				drawStone(g, new Point(x, y), on, on);
-			}
+	@Override
+	public void moveUndone(MoveDelta delta) {
+		updateBoardLayer(delta);
+	}
+
+	/**
+	 * Draws a space of the board layer: its part of the grid lines, and its stone.
+	 */
+	private void drawSpace(Graphics2D g, int x, int y, BoardSpace boardSpace) {
+		var pps = pixelsPerSpace;
+		g.setComposite(AlphaComposite.Clear);
+		g.fillRect(x * pps, y * pps, pps, pps);
+		g.setComposite(AlphaComposite.SrcOver);
+
+		g.setColor(Color.GRAY);
+		g.fillRect(x * pps + pps / 2, y * pps, 2, pps);
+		g.fillRect(x * pps, y * pps + pps / 2, pps, 2);
+
+		if (boardSpace != BoardSpace.EMPTY) {
+			var on = boardSpace == BoardSpace.BLACK ? Color.BLACK : Color.WHITE;
+			drawStone(g, x, y, on, on);
 		}
 	}
 
-	private Set<Point> getHoveredLibs() {
-		if (!isActive || hover == null)   return new HashSet<>();
+	private void drawHover(Graphics g) {
+		if (!isActive || hover == null)
+			return;
+		drawStone(g, hover.x, hover.y, state.turn == Stone.BLACK ? Color.BLACK : Color.WHITE, Color.LIGHT_GRAY);
+		var on = state.turn == Stone.BLACK ? Color.BLACK : Color.RED;
+		getHoveredLibs().forEach(lib -> drawLib(g, lib.x, lib.y, on));
+	}
 
-		Set<Point> alreadyScanned = new HashSet<>();
-		Point[] libsArr = state.getLiberties(state.turn, hover, alreadyScanned);
+	private void repaintSpace(int x, int y) {
+		repaint(x * pixelsPerSpace, y * pixelsPerSpace, pixelsPerSpace, pixelsPerSpace);
+	}
 
-		Set<Point> libs = new HashSet<>();
-		libs.addAll(Arrays.asList(libsArr));
-		return libs;
+	/**
+	 * Changes the hovered point, and repaints the spaces of the old and the new hovered stone and liberties.
+	 */
+	private void setHover(Point p) {
+		repaintHover();
+		hover = p;
+		repaintHover();
 	}
 
-	private void drawGridLines(Graphics g) {
-		for (int x = 0; x < state.board.length; x++) {
-			g.fillRect(x * pixelsPerSpace + pixelsPerSpace / 2, 0, 2, pixelSize);
-			g.fillRect(0, x * pixelsPerSpace + pixelsPerSpace / 2, pixelSize, 2);
+	private void repaintHover() {
+		if (!isActive || hover == null)
+			return;
+		repaintSpace(hover.x, hover.y);
+		getHoveredLibs().forEach(lib -> repaintSpace(lib.x, lib.y));
+	}
+
+	/**
+	 * Returns the liberties of the hovered point's group. They are computed once per hovered point and position, not on every repaint.
+	 */
+	private Set<Point> getHoveredLibs() {
+		if (!isActive || hover == null)   return Set.of();
+
+		if (hover != libsPoint) { // the Points are cached, so the same point is the same object
+			Set<Point> alreadyScanned = new HashSet<>();
+			Point[] libsArr = state.getLiberties(state.turn, hover, alreadyScanned);
+			hoveredLibs = new HashSet<>(Arrays.asList(libsArr));
+			libsPoint = hover;
 		}
+		return hoveredLibs;
 	}
 
 	public void mouseClicked(MouseEvent e) {
-		if (!isActive)
+		if (!isActive || isEngineTurn())
 			return;
-		state.makeMove(new Point(e.getX() / pixelsPerSpace, e.getY() / pixelsPerSpace));
-		updateLabel.accept(state.toString());
-		
-		hover = null; // after clicking reset the hover
-		repaint();
+		Point p = Point.of(e.getX() / pixelsPerSpace, e.getY() / pixelsPerSpace);
+		if (!isLegal(p))
+			return;
+		state.makeMove(p);
+		positionChanged(); // resets the hover too
+		updateLabel.accept(labelText());
+		playEngineMove();
 	}
 
 	public void mouseEntered(MouseEvent e) {
 	}
 
 	public void mouseExited(MouseEvent e) {
-		hover = null;
-		repaint();
+		setHover(null);
 	}
 
 	public void mousePressed(MouseEvent e) {
@@ -157,12 +381,14 @@ public class GoPane extends JComponent implements MouseListener, MouseMotionList
 	}
 
 	public void mouseMoved(MouseEvent e) {
-		if (!isActive)
+		if (!isActive || isEngineTurn())
 			return;
-		hover = new Point(e.getX() / pixelsPerSpace, e.getY() / pixelsPerSpace);
-		if (!state.isLegalMove(hover))
-			hover = null;
-		repaint();
+		Point p = Point.of(e.getX() / pixelsPerSpace, e.getY() / pixelsPerSpace);
+		if (!isLegal(p))
+			p = null;
+		if (p == hover)
+			return; // the mouse moved inside the same space, nothing changed
+		setHover(p);
 	}
 
 	public void componentHidden(ComponentEvent e) {
@@ -172,8 +398,9 @@ public class GoPane extends JComponent implements MouseListener, MouseMotionList
 	}
 
 	public void componentResized(ComponentEvent e) {
-		pixelsPerSpace = Math.min(getWidth(), getHeight()) / state.board.length;
-		pixelSize = pixelsPerSpace * state.board.length;
+		pixelsPerSpace = Math.min(getWidth(), getHeight()) / state.getSize();
+		pixelSize = pixelsPerSpace * state.getSize();
+		boardLayer = null;
 		repaint();
 	}
 
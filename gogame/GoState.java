@@ -1,152 +1,464 @@
 package gogame;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
 import java.io.File;
+import java.io.IOException;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
+import java.io.InputStream;
 import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
 import java.io.Serializable;
+import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.HashSet;
-import java.util.LinkedList;
-import java.util.Queue;
+import java.util.BitSet;
+import java.util.List;
 import java.util.Set;
-import java.util.function.Consumer;
 import java.util.function.Predicate;
+import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
-import static java.util.Objects.hash;
-
 public final class GoState implements Predicate<Point>, Serializable {
-	private static final long serialVersionUID = 1;
+	private static final long serialVersionUID = 5;
+	private static final BoardSpace[] BOARD_SPACES = BoardSpace.values(); // the board stores the BoardSpaces' ordinals
+	private static final byte EMPTY = (byte) BoardSpace.EMPTY.ordinal();
+	private static final MoveListener[] NO_LISTENERS = {};
 	
-	public final BoardSpace[][] board;
+	private final int size;
+	private final byte[] board; // row-major: the BoardSpace of the point (x, y) is at index y * size + x
 	private int blackCaptured;
 	private int whiteCaptured;
 	public Stone turn;
-	private final Set<GoState> prevStates;
+	private transient NeighborTable neighbors; // depends only on the size, so it is not serialized
+	private transient long[] zobristKeys; // depends only on the size, so it is not serialized
+	private long boardHash; // Zobrist hash of the stones on the board, maintained by placeStone and checkCaptured
+	private final LongHashSet prevStates; // Zobrist hashes (getZobristHash) of the previous states
+	private final UndoStack moves; // the moves played on the state, to take them back by unmakeMove
+	private transient ChainTable chains; // chains and liberty counts of the board, rebuilt after deserialization
+	private transient MoveListener[] listeners = NO_LISTENERS; // copied on change, so a move without listeners only checks the length
 	
 	public GoState(int size) {
-		board = new BoardSpace[size][size];
-		IntStream.range(0, size)
-			.forEach(y -> IntStream.range(0, size)
-					.forEach(x -> board[y][x] = BoardSpace.EMPTY)); // initialize all BoardSpace on the board to empty
+		this.size = size;
+		board = new byte[size * size]; // all BoardSpace on the board is empty (BoardSpace.EMPTY's ordinal is 0)
 		
 		blackCaptured = 0;
 		whiteCaptured = 0;
 		turn = Stone.BLACK;
-		prevStates = new HashSet<>();
+		neighbors = NeighborTable.of(size);
+		zobristKeys = Zobrist.keys(size);
+		boardHash = 0; // the hash of the empty board
+		prevStates = new LongHashSet();
+		moves = new UndoStack();
+		chains = new ChainTable(board, neighbors, zobristKeys);
 	}
 	
-	private GoState(GoState o) {
-		board = Arrays.stream(o.board)
-				.map(row -> row.clone())
-				.toArray(BoardSpace[][]::new);
+	/**
+	 * Copy constructor, the copy has its own board and history, so it can be modified independently from the original.
+	 * @param o the GoState to copy.
+	*/
+	public GoState(GoState o) {
+		size = o.size;
+		board = o.board.clone();
 		blackCaptured = o.blackCaptured;
 		whiteCaptured = o.whiteCaptured;
 		turn = o.turn;
-		prevStates = o.prevStates; // Already stored "GoState"s inside prevStates won't change during the program, so much better performance can be achieved if we don't copy unnecessarily
+		neighbors = o.neighbors;
+		zobristKeys = o.zobristKeys;
+		boardHash = o.boardHash;
+		prevStates = new LongHashSet(o.prevStates);
+		moves = new UndoStack(o.moves);
+		chains = new ChainTable(o.chains, board);
 	}
 	
 	public Point[] getNeighbors(Point p) {
-		int x = p.x;
+		if(test(p)) {
+			int i = index(p);
+			return IntStream.range(0, neighbors.count(i))
+					.mapToObj(k -> point(neighbors.neighbor(i, k)))
+					.toArray(Point[]::new);
+		}
+		
+		int x = p.x; // a point outside of the board can still have neighbors on the board
 		int y = p.y;
-		Point[] neighbours = { new Point(x, y - 1), new Point(x + 1, y), new Point(x, y + 1), new Point(x - 1, y) };
+		Point[] neighbours = { Point.of(x, y - 1), Point.of(x + 1, y), Point.of(x, y + 1), Point.of(x - 1, y) };
 		
 		return Arrays.stream(neighbours).filter(this).toArray(Point[]::new);
 	}
 
 	@Override
 	public boolean test(Point p) {
-		return p.x >= 0 && p.x < board.length &&
-				p.y >= 0 && p.y < board.length;
+		return p.x >= 0 && p.x < size &&
+				p.y >= 0 && p.y < size;
 	}
 
 	public Point[] getLiberties(Stone s, Point p, Set<Point> scanned) {
-		Queue<Point> toScan = new LinkedList<>(); // the queue
-		Set<Point> liberties = new HashSet<>(); // empty points next to the given group
-		Set<Point> discovered = new HashSet<>(); // points that the BFS already discovered (We need to mark the discovered points, to avoid putting them into the queue multiple times)
+		List<Point> liberties = new ArrayList<>(); // empty points next to the given group
+		int scannedBefore = Metrics.ENABLED ? scanned.size() : 0;
+		int i = index(p);
+		int stamp = chains.newStamp(); // marks the found liberties, and the scanned chains' representatives
+		chains.mark(i, stamp); // the starting point is never a liberty
 		
-		Consumer<Point> expandBFS = currentPoint -> {
-			Arrays.stream(getNeighbors(currentPoint))
-				.filter(neighborPoint -> !discovered.contains(neighborPoint))
-				.forEach(neighborPoint -> { toScan.add(neighborPoint); discovered.add(neighborPoint); });
-		}; // expand the BFS, to search for additional liberties, and group members (scanned)
-		
-		toScan.add(p); // add the starting point to the queue
-		
-		while(!toScan.isEmpty()) {
-			Point currentPoint = toScan.poll(); // remove the head of the queue
-			discovered.add(currentPoint); // mark the currentPoint (processed) as discovered
-			BoardSpace boardSpace = getBoardSpace(currentPoint); // currentPoint's representation on the table
-			
-			if(BoardSpace.EMPTY == boardSpace && currentPoint != p) { // if boardSpace is empty, and currentPoint is not the starting point, we found a "liberty" point
-				liberties.add(currentPoint); // an "empty space", next to the group is found
-			} else if(s == boardSpace.stone) { // if boardSpace contains a connected point to the group (same color as the given "s")
-				scanned.add(currentPoint); // we found a same color point, so add to the group
-				expandBFS.accept(currentPoint);
-			} else if(currentPoint == p) { // the neighbors of the starting point (p) must be added to the queue, regardless of what's on it
-				expandBFS.accept(currentPoint); 
-			}
+		if(s == getBoardSpace(p).stone) { // the group is the chain of the starting point
+			scanChain(chains.chainOf(i), stamp, scanned, liberties);
+		} else { // the group is the starting point (as if a stone of color "s" was placed there) and the connected same color chains
+			IntStream.range(0, neighbors.count(i))
+				.map(k -> neighbors.neighbor(i, k))
+				.forEach(n -> {
+					if(EMPTY == board[n]) {
+						if(chains.mark(n, stamp)) {
+							liberties.add(point(n)); // an "empty space", next to the group is found
+						}
+					} else if(s == BOARD_SPACES[board[n]].stone && chains.mark(chains.chainOf(n), stamp)) {
+						scanChain(chains.chainOf(n), stamp, scanned, liberties);
+					}
+				});
 		}
 		
+		if(Metrics.ENABLED) {
+			Metrics.LIBERTIES_SCAN.record(scanned.size() - scannedBefore);
+		}
 		return liberties.toArray(Point[]::new);
 	}
 	
+	/**
+	 * Adds the stones of a chain to "scanned", and its not yet marked liberties to "liberties".
+	*/
+	private void scanChain(int chain, int stamp, Set<Point> scanned, List<Point> liberties) {
+		int i = chain;
+		do {
+			scanned.add(point(i));
+			int stone = i;
+			IntStream.range(0, neighbors.count(stone))
+				.map(k -> neighbors.neighbor(stone, k))
+				.filter(n -> EMPTY == board[n] && chains.mark(n, stamp))
+				.forEach(n -> liberties.add(point(n)));
+			i = chains.next(i);
+		} while(i != chain);
+	}
+	
 	public void checkCaptured(Point p) {
-		BoardSpace boardSpace = getBoardSpace(p);
-		if(BoardSpace.EMPTY == boardSpace) { // empty space cannot be captured
+		captureIfDead(index(p), false);
+	}
+	
+	/**
+	 * Removes the chain of the stone on i if it has no liberties, and counts the captured stones.
+	 * @param record whether the captured stones should be added to the last move's undo record.
+	*/
+	private void captureIfDead(int i, boolean record) {
+		if(EMPTY == board[i]) { // empty space cannot be captured
+			return;
+		}
+		int chain = chains.chainOf(i);
+		if(0 != chains.liberties(chain)) { // the chain is captured only if its liberty is 0
 			return;
 		}
 		
-		Set<Point> sameColorStoneNeighbors = new HashSet<>();
-		
-		if(0 == getLiberties(boardSpace.stone, p, sameColorStoneNeighbors).length) { // if the stone's liberty (on "p") is 0, then the stone is captured
-			sameColorStoneNeighbors.stream()
-				.forEach(currentPoint -> board[currentPoint.y][currentPoint.x] = BoardSpace.EMPTY); // remove stones from the board <-> set boardSpaces to empty
-			
-			if(boardSpace.stone == Stone.BLACK) {
-				whiteCaptured += sameColorStoneNeighbors.size();
-			} else {
-				blackCaptured += sameColorStoneNeighbors.size();
+		Stone s = BOARD_SPACES[board[i]].stone;
+		boardHash ^= chains.hash(chain);
+		int j = chain;
+		do {
+			board[j] = EMPTY; // remove stones from the board <-> set boardSpaces to empty
+			if(record) {
+				moves.addCaptured(j, s);
 			}
+			j = chains.next(j);
+		} while(j != chain);
+		chains.removeChain(chain);
+		if(Metrics.ENABLED) {
+			Metrics.CAPTURES.record(chains.stones(chain));
+		}
+		
+		if(s == Stone.BLACK) {
+			whiteCaptured += chains.stones(chain);
+		} else {
+			blackCaptured += chains.stones(chain);
 		}
 	}
 	
 	public GoState placeStone(Point p) {
-		board[p.y][p.x] = BoardSpace.fromStone(turn);
-		Arrays.stream(getNeighbors(p)).forEach(this::checkCaptured);
+		int i = index(p);
+		byte opponent = (byte) BoardSpace.fromStone(turn.opposite()).ordinal();
+		moves.push(i, turn);
+		board[i] = (byte) BoardSpace.fromStone(turn).ordinal();
+		boardHash ^= stoneKey(p, turn);
+		chains.addStone(i);
+		for(int k = 0, count = neighbors.count(i); k < count; k++) {
+			int n = neighbors.neighbor(i, k);
+			if(opponent == board[n]) {
+				captureIfDead(n, true); // the opposite color neighbors are captured first, so they can give liberties to the new stone
+			}
+		}
+		captureIfDead(i, true); // a suicidal stone (and its group) is removed
 		turn = turn.opposite(); // switch current player's color
+		if(0 != listeners.length) {
+			fireMove(false);
+		}
 		return this;
 	}
 	
 	public boolean isLegalMove(Point p) {
-		if(test(p) && BoardSpace.EMPTY == getBoardSpace(p) &&
-				(0 < getLiberties(turn, p, new HashSet<>()).length ||
-					Arrays.stream(getNeighbors(p)) 
-						.anyMatch(np -> turn.opposite() == getBoardSpace(np).stone && 
-							Arrays.equals(getLiberties(turn.opposite(), np, new HashSet<>()), new Point[] {p})) // Is there any neighbor stone: that is opposite color and it's exactly one liberty is "p"
-				)
-		) { // legal move: inside the board, space is empty, the new stone's liberty will be > 0 or the stone's liberty is 0, but will remove an opposite stone
-			GoState newGoState = new GoState(this).placeStone(p);
-			return prevStates.stream()
-					.noneMatch(prevState -> prevState.equals(newGoState)); // less efficient: return prevStates.stream().noneMatch(prevState -> prevState.equals(new GoState(this).placeStone(p)));
+		if(Metrics.ENABLED) {
+			long start = System.nanoTime();
+			boolean legal = checkLegalMove(p);
+			Metrics.IS_LEGAL_MOVE.record(System.nanoTime() - start);
+			if(!legal) {
+				Metrics.ILLEGAL_MOVES.increment();
+			}
+			return legal;
+		}
+		return checkLegalMove(p);
+	}
+	
+	private boolean checkLegalMove(Point p) {
+		if(!test(p) || BoardSpace.EMPTY != getBoardSpace(p)) {
+			return false; // illegal move: outside of the board, or the space is taken
+		}
+		return isLegalMove(index(p), (byte) BoardSpace.fromStone(turn).ordinal(), boardHash ^ turnKey(turn.opposite()));
+	}
+	
+	/**
+	 * Returns every legal move of the current player.
+	 * The moves are checked in a single pass over the board, using the chains' liberty counts and hashes, without building any trial board.
+	 * @return the indices (y * size + x) of the legal points.
+	*/
+	public BitSet legalMoves() {
+		BitSet legalMoves = new BitSet(board.length);
+		legalMoves(legalMoves);
+		return legalMoves;
+	}
+	
+	/**
+	 * Same as {@link #legalMoves()}, but reuses the given BitSet (so callers that ask for the legal moves repeatedly don't allocate).
+	 * @param legalMoves is cleared, then the indices of the legal points are set in it.
+	*/
+	public void legalMoves(BitSet legalMoves) {
+		legalMoves.clear();
+		byte own = (byte) BoardSpace.fromStone(turn).ordinal();
+		long baseHash = boardHash ^ turnKey(turn.opposite());
+		for(int i = 0; i < board.length; i++) {
+			if(EMPTY == board[i] && isLegalMove(i, own, baseHash)) {
+				legalMoves.set(i);
+			}
 		}
-		return false; // illegal move
+	}
+	
+	/**
+	 * Checks whether placing a stone on the empty point i is legal.
+	 * @param i index of the empty point.
+	 * @param own the current player's BoardSpace ordinal.
+	 * @param baseHash the hash of the current board with the opponent to move.
+	 * @return true if the move is not suicidal, and doesn't repeat a previous state.
+	*/
+	private boolean isLegalMove(int i, byte own, long baseHash) {
+		int stamp = chains.newStamp(); // marks the already checked neighbor chains
+		boolean hasLiberty = false; // the new stone's group would have a liberty
+		boolean captures = false; // the move would remove an opposite color chain
+		long newHash = baseHash ^ Zobrist.key(zobristKeys, i, turn); // hash of the state after the move, without building it
+		
+		for(int k = 0, count = neighbors.count(i); k < count; k++) {
+			int n = neighbors.neighbor(i, k);
+			if(EMPTY == board[n]) {
+				hasLiberty = true;
+				continue;
+			}
+			int chain = chains.chainOf(n);
+			if(!chains.mark(chain, stamp)) {
+				continue;
+			}
+			if(own == board[n]) {
+				hasLiberty |= 1 < chains.liberties(chain); // the chain has an other liberty, than "p"
+			} else if(1 == chains.liberties(chain)) { // the neighbor chain's exactly one liberty is "p"
+				captures = true;
+				newHash ^= chains.hash(chain);
+			}
+		}
+		
+		if(!hasLiberty && !captures) {
+			return false; // illegal move: suicidal (the new stone's liberty would be 0, and it doesn't remove any opposite stone)
+		}
+		return !prevStates.contains(newHash); // the move mustn't repeat a previous state
 	}
 	
 	public boolean makeMove(Point p) {
+		boolean addedToHistory;
 		if(null == p) {
-			prevStates.add(new GoState(this));
+			addedToHistory = prevStates.add(getZobristHash());
+			moves.push(UndoStack.PASS, turn);
 			turn = turn.opposite(); // switch current player's color
+			if(0 != listeners.length) {
+				fireMove(false);
+			}
 		} else if(!isLegalMove(p)) {
 			return false;
 		} else { // legal move
-			prevStates.add(new GoState(this));
+			addedToHistory = prevStates.add(getZobristHash());
 			placeStone(p); // place the stone on the board
 		}
+		if(addedToHistory) {
+			moves.markAddedToHistory();
+		}
+		if(Metrics.ENABLED) {
+			Metrics.HISTORY_SIZE.record(prevStates.size());
+		}
 		
-		return prevStates.stream().anyMatch(this::equals);
+		return isRepeated();
+	}
+	
+	/**
+	 * @return true if the state repeats a previous one (like after two passes), so the game has ended.
+	*/
+	public boolean isRepeated() {
+		return prevStates.contains(getZobristHash());
+	}
+	
+	/**
+	 * Takes back the last move (made by makeMove or placeStone): restores the board, the captured stones, the player and the history.
+	 * Together with makeMove, a search can walk up and down the game tree on one GoState, without copying it.
+	 * @return false if there is no move to take back.
+	*/
+	public boolean unmakeMove() {
+		if(0 == moves.size()) {
+			return false;
+		}
+		moves.pop();
+		
+		IntStream.range(0, moves.topCapturedCount())
+			.forEach(k -> {
+				Stone captured = moves.topCapturedStone(k);
+				setBoardSpace(moves.topCapturedIndex(k), BoardSpace.fromStone(captured)); // put back the captured stone
+				if(Stone.BLACK == captured) {
+					--whiteCaptured;
+				} else {
+					--blackCaptured;
+				}
+			});
+		if(UndoStack.PASS != moves.topMove()) {
+			setBoardSpace(moves.topMove(), BoardSpace.EMPTY); // remove the placed stone
+		}
+		
+		turn = moves.topPlayer();
+		if(moves.topAddedToHistory()) {
+			prevStates.remove(getZobristHash());
+		}
+		if(0 != listeners.length) {
+			fireMove(true);
+		}
+		return true;
+	}
+	
+	/**
+	 * Registers a listener, that is called after every move made or taken back on the state (the copies of the state don't have the listener).
+	 * @param listener to add.
+	*/
+	public void addMoveListener(MoveListener listener) {
+		listeners = Arrays.copyOf(listeners, listeners.length + 1);
+		listeners[listeners.length - 1] = listener;
+	}
+	
+	/**
+	 * @param listener to remove (nothing happens, if it isn't registered).
+	*/
+	public void removeMoveListener(MoveListener listener) {
+		listeners = Arrays.stream(listeners)
+				.filter(l -> l != listener)
+				.toArray(MoveListener[]::new);
+	}
+	
+	/**
+	 * Calls the listeners with the last move's delta (or with the undone move's delta, read from the popped undo record).
+	*/
+	private void fireMove(boolean undone) {
+		int r = moves.size() - 1;
+		int move = undone ? moves.topMove() : moves.move(r);
+		Stone player = undone ? moves.topPlayer() : moves.player(r);
+		Point[] captured = undone
+				? IntStream.range(0, moves.topCapturedCount()).mapToObj(k -> point(moves.topCapturedIndex(k))).toArray(Point[]::new)
+				: IntStream.range(0, moves.capturedCount(r)).mapToObj(k -> point(moves.capturedIndex(r, k))).toArray(Point[]::new);
+		MoveDelta delta = new MoveDelta(undone ? moves.size() + 1 : moves.size(), player, UndoStack.PASS == move ? null : point(move),
+				List.of(captured), blackCaptured, whiteCaptured);
+		for(MoveListener listener : listeners) {
+			if(undone) {
+				listener.moveUndone(delta);
+			} else {
+				listener.moveMade(delta);
+			}
+		}
+	}
+	
+	/**
+	 * @return the number of moves (including passes) that can be taken back by unmakeMove.
+	*/
+	public int getMoveCount() { return moves.size(); }
+	
+	/**
+	 * @param r the number of the move (0 is the first move, that can be taken back).
+	 * @return the index of the move's point, or UndoStack.PASS.
+	*/
+	int getMove(int r) { return moves.move(r); }
+	Stone getMovePlayer(int r) { return moves.player(r); }
+	
+	/**
+	 * Returns the Zobrist hash of the state (the board and the player to move).
+	 * Equal states always have equal hashes, different states have different hashes with a very high probability.
+	 * @return the 64-bit hash of the state.
+	*/
+	public long getZobristHash() {
+		return boardHash ^ turnKey(turn);
+	}
+	
+	/**
+	 * Puts a BoardSpace directly on the board (without capturing, or switching the player), to set up a position.
+	 * @param x coordinate of the point.
+	 * @param y coordinate of the point.
+	 * @param boardSpace to put on the point.
+	*/
+	void setBoardSpace(int x, int y, BoardSpace boardSpace) {
+		setBoardSpace(y * size + x, boardSpace);
+	}
+	
+	/**
+	 * Sets the captured stones, to set up a position.
+	*/
+	void setCaptured(int blackCaptured, int whiteCaptured) {
+		this.blackCaptured = blackCaptured;
+		this.whiteCaptured = whiteCaptured;
+	}
+	
+	/**
+	 * Adds a state to the history, that was before the set up position (so it can't be repeated).
+	 * @param hash the state's Zobrist hash (getZobristHash).
+	*/
+	void addPrevState(long hash) {
+		prevStates.add(hash);
+	}
+	
+	private void setBoardSpace(int i, BoardSpace boardSpace) {
+		BoardSpace previous = BOARD_SPACES[board[i]];
+		if(BoardSpace.EMPTY != previous) {
+			boardHash ^= Zobrist.key(zobristKeys, i, previous.stone);
+		}
+		if(BoardSpace.EMPTY != boardSpace) {
+			boardHash ^= Zobrist.key(zobristKeys, i, boardSpace.stone);
+		}
+		board[i] = (byte) boardSpace.ordinal();
+		chains.rebuildAround(i, (byte) previous.ordinal());
+	}
+	
+	private int index(Point p) {
+		return p.index(size);
+	}
+	
+	private Point point(int i) {
+		return Point.of(i % size, i / size);
+	}
+	
+	private long stoneKey(Point p, Stone s) {
+		return Zobrist.key(zobristKeys, index(p), s);
+	}
+	
+	private static long turnKey(Stone s) {
+		return Stone.WHITE == s ? Zobrist.WHITE_TO_MOVE : 0;
 	}
 	
 	/**
@@ -154,14 +466,35 @@ public final class GoState implements Predicate<Point>, Serializable {
 	 * @param p A Point of the table.
 	 * @return The table's BoardSpace on the specified Point.
 	*/
-	private BoardSpace getBoardSpace(Point p) {
-		return board[p.y][p.x];
+	public BoardSpace getBoardSpace(Point p) {
+		return BOARD_SPACES[board[index(p)]];
+	}
+	
+	public BoardSpace getBoardSpace(int x, int y) {
+		return BOARD_SPACES[board[y * size + x]];
+	}
+	
+	public BoardSpace getBoardSpace(int index) {
+		return BOARD_SPACES[board[index]];
 	}
 	
+	public int getSize() { return size; }
+	
+	/**
+	 * Loads a game saved by saveGame (the files of the earlier versions can be loaded too).
+	 * @param file to load.
+	 * @return the loaded game, with its history rebuilt by replaying the moves.
+	*/
 	public static GoState loadGame(File file) {
 		try {
-			try(ObjectInputStream inStream = new ObjectInputStream(new FileInputStream(file))) {
-				return (GoState) inStream.readObject();
+			long start = Metrics.ENABLED ? System.nanoTime() : 0;
+			try(InputStream inStream = new BufferedInputStream(new FileInputStream(file))) {
+				GoState state = GameFile.read(inStream);
+				if(Metrics.ENABLED) {
+					Metrics.LOAD_GAME_TIME.record(System.nanoTime() - start);
+					Metrics.LOAD_GAME_SIZE.record(file.length());
+				}
+				return state;
 			}
 		}
 		catch(Exception e) {
@@ -169,10 +502,19 @@ public final class GoState implements Predicate<Point>, Serializable {
 		}
 	}
 	
+	/**
+	 * Saves the game in the binary format of GameFile: the starting position and the moves.
+	 * @param file to save to.
+	*/
 	public void saveGame(File file) {
 		try {
-			try(ObjectOutputStream outStream = new ObjectOutputStream(new FileOutputStream(file))) {
-				outStream.writeObject(this);
+			long start = Metrics.ENABLED ? System.nanoTime() : 0;
+			try(DataOutputStream outStream = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)))) {
+				GameFile.write(this, outStream);
+			}
+			if(Metrics.ENABLED) {
+				Metrics.SAVE_GAME_TIME.record(System.nanoTime() - start);
+				Metrics.SAVE_GAME_SIZE.record(file.length());
 			}
 		}
 		catch(Exception e) {
@@ -181,9 +523,18 @@ public final class GoState implements Predicate<Point>, Serializable {
 	}
 	
 	
+	private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+		in.defaultReadObject();
+		neighbors = NeighborTable.of(size);
+		zobristKeys = Zobrist.keys(size);
+		chains = new ChainTable(board, neighbors, zobristKeys);
+		listeners = NO_LISTENERS;
+	}
+	
+	
 	public int getBlackCaptured() { return blackCaptured; }
 	public int getWhiteCaptured() { return whiteCaptured; }
-	public Set<GoState> getPrevStates() { return prevStates; }
+	public Set<Long> getPrevStates() { return prevStates.stream().boxed().collect(Collectors.toSet()); } // snapshot of the previous states' hashes
 	
 	@Override
 	public boolean equals(Object o) {
@@ -193,14 +544,15 @@ public final class GoState implements Predicate<Point>, Serializable {
 		
 		if(null != o && getClass() == o.getClass()) {
 			GoState otherGoState = (GoState)o;
-			return Arrays.deepEquals(this.board, otherGoState.board) && this.turn == otherGoState.turn;
+			return this.boardHash == otherGoState.boardHash && // cheap check first, different hashes mean different boards
+					Arrays.equals(this.board, otherGoState.board) && this.turn == otherGoState.turn;
 		}
 		return false;
 	}
 	
 	@Override
 	public int hashCode() {
-		return hash(Arrays.deepHashCode(board), turn);
+		return Long.hashCode(getZobristHash());
 	}
 	
 	@Override
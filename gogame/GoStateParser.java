@@ -19,7 +19,7 @@ public class GoStateParser {
 			.forEach(i -> {
 				 lines[i] = lines[i].replace(",", ""); // removing the commas
 				 IntStream.range(0, lines.length)
-					.forEach(j -> state.board[i][j] = parseLetter(lines[i].charAt(j)));
+					.forEach(j -> state.setBoardSpace(j, i, parseLetter(lines[i].charAt(j))));
 			}); // parsing the GoState
 		return state;
 	}
@@ -5,8 +5,16 @@ import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
 import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.BitSet;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
@@ -127,6 +135,26 @@ public class GoStateTest {
 	}
 	
 	
+	@DisplayName("Testing, that \"legalMoves\" method returns exactly the points, that \"isLegalMove\" accepts.")
+	@ParameterizedTest
+	@MethodSource("provideSuicidalGoStates")
+	public void testLegalMoves(String gameState, Point suicidalMove, Stone currentPlayerColor) {
+		GoState state = GoStateParser.parseGoState(gameState);
+		state.turn = currentPlayerColor;
+		int size = state.getSize();
+		BitSet expectedLegalMoves = new BitSet();
+		IntStream.range(0, size * size)
+			.filter(i -> state.isLegalMove(new Point(i % size, i / size)))
+			.forEach(expectedLegalMoves::set);
+		
+		BitSet legalMoves = state.legalMoves();
+		assertAll(
+				() -> assertEquals(expectedLegalMoves, legalMoves),
+				() -> assertFalse(legalMoves.get(suicidalMove.y * size + suicidalMove.x))
+		);
+	}
+	
+	
 	/*
 	  _,B,W,_,_,_,_,_,_
 	  B,_,B,W,_,_,_,_,_
@@ -150,7 +178,10 @@ public class GoStateTest {
 		state.makeMove(new Point(2, 2));  
 		state.makeMove(new Point(2, 1)); // The comment before this method displays the state here.
 		state.makeMove(new Point(1, 1)); // White stone placed to (1, 1), removing black stone at (2, 1) 
-		assertFalse(state.isLegalMove(new Point(2, 1))); // Would cause the same state as the comment shows, so it's illegal
+		assertAll(
+				() -> assertFalse(state.isLegalMove(new Point(2, 1))), // Would cause the same state as the comment shows, so it's illegal
+				() -> assertFalse(state.legalMoves().get(1 * 9 + 2))
+		);
 	}
 	
 	
@@ -192,7 +223,18 @@ public class GoStateTest {
 	        	_,_,_,_,_,_,B,W,B
 	        	_,_,_,_,_,_,B,W,W
 	        	_,_,_,_,_,_,B,W,W
-	        	""", new Point(7, 5), Stone.BLACK, List.of(new Point(7, 6), new Point(7, 7), new Point(7, 8), new Point(8, 7), new Point(8, 8)))
+	        	""", new Point(7, 5), Stone.BLACK, List.of(new Point(7, 6), new Point(7, 7), new Point(7, 8), new Point(8, 7), new Point(8, 8))),
+	        Arguments.of("""
+	        	W,_,B,W,_,_,_,_,_
+	        	B,W,W,_,_,_,_,_,_
+	        	_,_,_,_,_,_,_,_,_
+	        	_,_,_,_,_,_,_,_,_
+	        	_,_,_,_,_,_,_,_,_
+	        	_,_,_,_,_,_,_,_,_
+	        	_,_,_,_,_,_,_,_,_
+	        	_,_,_,_,_,_,_,_,_
+	        	_,_,_,_,_,_,_,_,_
+	        	""", new Point(1, 0), Stone.BLACK, List.of(new Point(0, 0))) // the new stone's group has no liberty until the white stone is removed
 	    );
 	}
 	@DisplayName("Testing, that \"checkCaptured\" method handles capturing correctly.")
@@ -213,7 +255,7 @@ public class GoStateTest {
 						.mapToObj(i -> () -> {
 							int x = capturedPositions.get(i).x;
 							int y = capturedPositions.get(i).y;
-							assertEquals(BoardSpace.EMPTY, state.board[y][x], "Captured stone at position x: %d y: %d wasn't removed".formatted(x, y));
+							assertEquals(BoardSpace.EMPTY, state.getBoardSpace(x, y), "Captured stone at position x: %d y: %d wasn't removed".formatted(x, y));
 					}) // check whether all encircled(captured) position is correctly handled (set to BoardSpace.EMPTY)
 			)
 		);
@@ -332,12 +374,42 @@ public class GoStateTest {
 				state.makeMove(pos); // valid move
 				assertAll(
 					() -> assertFalse(prevStatesBeforeMove.equals(state.getPrevStates())), // State changed
-					() -> assertTrue(state.board[pos.y][pos.x] != BoardSpace.EMPTY) // Stone placed
+					() -> assertTrue(state.getBoardSpace(pos) != BoardSpace.EMPTY) // Stone placed
 				);
 		});
 	}
 	
 	
+	@DisplayName("Testing, that \"unmakeMove\" method restores the previous states (board, captured stones, player, history).")
+	@Test
+	public void testUnmakeMove() {
+		List<Point> moveSequence = Arrays.asList(new Point(1, 0), new Point(2, 0), new Point(0, 1), new Point(3, 1), new Point(1, 2),
+				new Point(2, 2), new Point(2, 1), new Point(1, 1), null, null); // the white stone on (1, 1) captures the black stone on (2, 1), then both players pass
+		GoState state = new GoState(9);
+		List<GoState> previousStates = moveSequence.stream()
+				.map(move -> {
+					GoState previousState = new GoState(state);
+					state.makeMove(move);
+					return previousState;
+				})
+				.toList();
+		
+		IntStream.range(0, moveSequence.size())
+			.map(i -> moveSequence.size() - 1 - i) // taking back the moves in reverse order
+			.forEach(i -> {
+				assertTrue(state.unmakeMove());
+				GoState expectedState = previousStates.get(i);
+				assertAll(
+						() -> assertEquals(expectedState, state),
+						() -> assertEquals(expectedState.getBlackCaptured(), state.getBlackCaptured()),
+						() -> assertEquals(expectedState.getWhiteCaptured(), state.getWhiteCaptured()),
+						() -> assertEquals(expectedState.getPrevStates(), state.getPrevStates())
+				);
+			});
+		assertFalse(state.unmakeMove()); // every move was taken back
+	}
+	
+	
 	static Stream<Arguments> provideAlmostCapturedGoStates() {
 	    return Stream.of(
 	        Arguments.of("""
@@ -429,4 +501,193 @@ public class GoStateTest {
 			fail(ex.getMessage());
 		}
 	}
+	
+	@DisplayName("Testing, that a loaded game has the history of the saved game: its moves can be taken back, and the earlier states can't be repeated.")
+	@Test
+	public void testSaveLoadGameHistory() throws IOException {
+		GoState originalState = GoStateParser.parseGoState("""
+			_,W,_,_,_,_,_,_,_
+			W,_,_,_,_,_,_,_,_
+			_,_,B,_,_,_,_,_,_
+			_,_,_,_,_,_,_,_,_
+			_,_,_,_,_,_,_,_,_
+			_,_,_,_,_,_,_,_,_
+			_,_,_,_,_,_,_,_,_
+			_,_,_,_,_,_,_,_,_
+			_,_,_,_,_,_,_,_,_
+			""");
+		originalState.makeMove(new Point(4, 4));
+		originalState.makeMove(null);
+		originalState.makeMove(new Point(1, 1));
+		
+		File file = File.createTempFile("testHistory", ".go");
+		file.deleteOnExit();
+		originalState.saveGame(file);
+		GoState inputState = GoState.loadGame(file);
+		
+		assertAll(
+			() -> assertEquals(originalState, inputState),
+			() -> assertEquals(originalState.getMoveCount(), inputState.getMoveCount()),
+			() -> assertEquals(originalState.getPrevStates(), inputState.getPrevStates())
+		);
+		
+		while(inputState.unmakeMove());
+		assertEquals(GoStateParser.parseGoState("""
+			_,W,_,_,_,_,_,_,_
+			W,_,_,_,_,_,_,_,_
+			_,_,B,_,_,_,_,_,_
+			_,_,_,_,_,_,_,_,_
+			_,_,_,_,_,_,_,_,_
+			_,_,_,_,_,_,_,_,_
+			_,_,_,_,_,_,_,_,_
+			_,_,_,_,_,_,_,_,_
+			_,_,_,_,_,_,_,_,_
+			"""), inputState); // the set up position is restored
+	}
+	
+	@DisplayName("Testing, that a game, where a player moved twice in a row (set by GoState.turn), is saved and loaded.")
+	@Test
+	public void testSaveLoadSamePlayerTwice() throws IOException {
+		GoState originalState = new GoState(9);
+		originalState.makeMove(Point.of(0, 0));
+		originalState.turn = Stone.BLACK; // as an imported SGF game can do it
+		originalState.makeMove(Point.of(1, 0));
+		originalState.makeMove(null);
+		originalState.turn = Stone.WHITE;
+		originalState.makeMove(Point.of(2, 0));
+		
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		GameFile.write(originalState, new DataOutputStream(bytes));
+		GoState inputState = readGameFile(bytes.toByteArray());
+		
+		assertAll(
+			() -> assertEquals(originalState, inputState),
+			() -> assertEquals(originalState.getMoveCount(), inputState.getMoveCount()),
+			() -> assertEquals(originalState.getPrevStates(), inputState.getPrevStates()),
+			() -> assertEquals(Stone.BLACK, inputState.getMovePlayer(1)),
+			() -> assertEquals(Stone.WHITE, inputState.getMovePlayer(3))
+		);
+	}
+	
+	@DisplayName("Testing, that the files of the first binary version (without the players of the moves) can still be loaded.")
+	@Test
+	public void testLoadAlternatingGameFile() throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream(bytes);
+		out.writeInt(0x474F474D); // "GOGM"
+		out.writeByte(1); // version
+		out.writeByte(9); // size
+		out.writeByte(0); // flags
+		out.writeInt(3); // moves
+		out.writeShort(40);
+		out.writeShort(0xFFFF); // pass
+		out.writeShort(0);
+		
+		GoState expectedState = new GoState(9);
+		expectedState.makeMove(Point.of(4, 4));
+		expectedState.makeMove(null);
+		expectedState.makeMove(Point.of(0, 0));
+		GoState inputState = readGameFile(bytes.toByteArray());
+		assertAll(
+			() -> assertEquals(expectedState, inputState),
+			() -> assertEquals(expectedState.getPrevStates(), inputState.getPrevStates())
+		);
+	}
+	
+	private static GoState readGameFile(byte[] bytes) throws IOException {
+		try {
+			return GameFile.read(new ByteArrayInputStream(bytes));
+		} catch(ClassNotFoundException e) {
+			throw new IOException(e);
+		}
+	}
+	
+	@DisplayName("Testing, that the games saved with Java serialization by the current class can still be loaded.")
+	@Test
+	public void testLoadSerializedGame() throws IOException {
+		GoState originalState = new GoState(9);
+		originalState.makeMove(new Point(0, 0));
+		originalState.makeMove(new Point(1, 0));
+		originalState.makeMove(new Point(2, 2));
+		originalState.makeMove(new Point(0, 1));
+		
+		File file = File.createTempFile("testSerialized", ".go");
+		file.deleteOnExit();
+		try(ObjectOutputStream outStream = new ObjectOutputStream(new FileOutputStream(file))) {
+			outStream.writeObject(originalState);
+		}
+		GoState inputState = GoState.loadGame(file);
+		
+		assertAll(
+			() -> assertEquals(originalState, inputState),
+			() -> assertEquals(originalState.getWhiteCaptured(), inputState.getWhiteCaptured()),
+			() -> assertEquals(originalState.getPrevStates(), inputState.getPrevStates())
+		);
+	}
+	
+	/* The fixture was saved by saveGame of the first version (Java serialization, serialVersionUID 1), after the moves:
+	 * black (1, 0), white (0, 0), black (0, 1) capturing (0, 0), white (4, 4), black passes, white (5, 5).
+	*/
+	@DisplayName("Testing, that a game saved by the first version of the program can still be loaded.")
+	@Test
+	public void testLoadFirstVersionGame() {
+		GoState expectedState = new GoState(9);
+		expectedState.makeMove(Point.of(1, 0));
+		expectedState.makeMove(Point.of(0, 0));
+		expectedState.makeMove(Point.of(0, 1));
+		expectedState.makeMove(Point.of(4, 4));
+		expectedState.makeMove(null);
+		expectedState.makeMove(Point.of(5, 5));
+		
+		GoState inputState = GoState.loadGame(new File("gogame/testdata/serialized-v1.go"));
+		assertAll(
+			() -> assertEquals(expectedState, inputState),
+			() -> assertEquals(1, inputState.getBlackCaptured()),
+			() -> assertEquals(0, inputState.getWhiteCaptured()),
+			() -> assertEquals(expectedState.getPrevStates(), inputState.getPrevStates())
+		);
+	}
+	
+	@DisplayName("Testing, that the move listeners get the deltas of the made and the undone moves, until they are removed.")
+	@Test
+	public void testMoveListener() {
+		GoState state = GoStateParser.parseGoState("""
+			B,W,B,_,_,_,_,_,_
+			_,_,_,_,_,_,_,_,_
+			_,_,_,_,_,_,_,_,_
+			_,_,_,_,_,_,_,_,_
+			_,_,_,_,_,_,_,_,_
+			_,_,_,_,_,_,_,_,_
+			_,_,_,_,_,_,_,_,_
+			_,_,_,_,_,_,_,_,_
+			_,_,_,_,_,_,_,_,_
+			""");
+		List<String> events = new ArrayList<>();
+		MoveListener listener = new MoveListener() {
+			@Override
+			public void moveMade(MoveDelta delta) {
+				events.add("made " + delta);
+			}
+			
+			@Override
+			public void moveUndone(MoveDelta delta) {
+				events.add("undone " + delta);
+			}
+		};
+		state.addMoveListener(listener);
+		state.makeMove(new Point(1, 1)); // captures the white stone
+		state.makeMove(null);
+		state.makeMove(new Point(0, 0)); // illegal (occupied), no event
+		state.unmakeMove();
+		state.unmakeMove();
+		state.removeMoveListener(listener);
+		state.makeMove(new Point(4, 4));
+		
+		assertEquals(List.of(
+				"made " + new MoveDelta(1, Stone.BLACK, Point.of(1, 1), List.of(Point.of(1, 0)), 1, 0),
+				"made " + new MoveDelta(2, Stone.WHITE, null, List.of(), 1, 0),
+				"undone " + new MoveDelta(2, Stone.WHITE, null, List.of(), 1, 0),
+				"undone " + new MoveDelta(1, Stone.BLACK, Point.of(1, 1), List.of(Point.of(1, 0)), 0, 0)
+			), events);
+	}
 }
@@ -14,9 +14,16 @@ import javax.swing.JPanel;
 import javax.swing.JTextArea;
 import javax.swing.filechooser.FileNameExtensionFilter;
 
+import gogame.engine.MctsPlayer;
+import gogame.engine.SearchBudget;
+
 public class GoSwing {
+	private static final String[] OPPONENTS = { "Human", "Computer (Black)", "Computer (White)" };
+	private static final SearchBudget ENGINE_BUDGET = SearchBudget.ofMillis(2000);
+
 	public static record GoInputs(
 		JComboBox<String> cb,
+		JComboBox<String> opponentCb,
 		JButton button,
 		JButton loadButton,
 		JButton passButton
@@ -24,13 +31,15 @@ public class GoSwing {
 		public static GoInputs make() {
 			var cb = new JComboBox<>(BoardSize.getStringValues());
 			cb.setMaximumSize(cb.getPreferredSize());
+			var opponentCb = new JComboBox<>(OPPONENTS);
+			opponentCb.setMaximumSize(opponentCb.getPreferredSize());
 
 			var button = new JButton("Start Game");
 			var loadButton = new JButton("Load Game");
 			var passButton = new JButton("Pass");
 			passButton.setVisible(false);
 
-			return new GoInputs(cb, button, loadButton, passButton);
+			return new GoInputs(cb, opponentCb, button, loadButton, passButton);
 		}
 	}
 
@@ -48,14 +57,15 @@ public class GoSwing {
 			var panel = new JPanel();
 			panel.setLayout(new BoxLayout(panel, BoxLayout.Y_AXIS));
 			var hpanel = new JPanel();
-			hpanel.setPreferredSize(new Dimension(500, 40));
+			hpanel.setPreferredSize(new Dimension(600, 40));
 			hpanel.add(inputs.cb());
+			hpanel.add(inputs.opponentCb());
 			hpanel.add(inputs.button());
 			hpanel.add(inputs.loadButton());
 			hpanel.add(inputs.passButton());
 			panel.add(hpanel);
 
-			var gameLabel = new JTextArea("\n");
+			var gameLabel = new JTextArea("\n\n"); // room for the captures, and the engine statistics or the score
 			panel.add(gameLabel);
 
 			var pane = new GoPane(txt -> {
@@ -71,7 +81,7 @@ public class GoSwing {
 		public static GoFrame make() {
 			var frame = new JFrame("Go");
 			frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
-			frame.setSize(600, 640);
+			frame.setSize(640, 640);
 
 			var panel = GoPanel.make();
 			frame.getContentPane().add(panel.panel());
@@ -89,6 +99,7 @@ public class GoSwing {
 			setupToggleGame();
 			setupLoad();
 			setupSize();
+			setupOpponent();
 			setupPass();
 		}
 
@@ -101,6 +112,7 @@ public class GoSwing {
 				panel().inputs().loadButton().setText(isActive ? "Save Game" : "Load Game");
 
 				panel().inputs().cb().setEnabled(!isActive);
+				panel().inputs().opponentCb().setEnabled(!isActive);
 				panel().inputs().passButton().setVisible(isActive);
 			};
 
@@ -139,6 +151,18 @@ public class GoSwing {
 			});
 		}
 
+		private void setupOpponent() {
+			var engine = new MctsPlayer();
+			panel().inputs().opponentCb().addActionListener(event -> {
+				var color = switch (panel().inputs().opponentCb().getSelectedIndex()) {
+					case 1 -> Stone.BLACK;
+					case 2 -> Stone.WHITE;
+					default -> null;
+				};
+				panel().pane().setEngine(color, engine, ENGINE_BUDGET);
+			});
+		}
+
 		private void setupPass() {
 			panel().inputs().passButton().addActionListener(event -> {
 				panel().pane().pass();
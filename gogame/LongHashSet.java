@@ -0,0 +1,129 @@
+package gogame;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.stream.LongStream;
+
+/**
+ * A set of primitive longs (open addressing, linear probing), to store hashes without boxing.
+*/
+final class LongHashSet implements Serializable {
+	private static final long serialVersionUID = 1;
+	private static final long FREE = 0; // marks an unused slot, the value 0 itself is tracked by "containsZero"
+	private static final int INITIAL_CAPACITY = 64;
+
+	private long[] table;
+	private int size;
+	private boolean containsZero;
+
+	LongHashSet() {
+		table = new long[INITIAL_CAPACITY];
+	}
+
+	LongHashSet(LongHashSet o) {
+		table = o.table.clone();
+		size = o.size;
+		containsZero = o.containsZero;
+	}
+
+	/**
+	 * Adds a value to the set.
+	 * @param value to add.
+	 * @return true if the set didn't contain the value.
+	*/
+	boolean add(long value) {
+		if(FREE == value) {
+			if(containsZero) {
+				return false;
+			}
+			containsZero = true;
+			++size;
+			return true;
+		}
+
+		int slot = findSlot(table, value);
+		if(value == table[slot]) {
+			return false;
+		}
+		table[slot] = value;
+		++size;
+		if(2 * size > table.length) { // keep the load factor under 0.5, so the probe sequences stay short
+			grow();
+		}
+		return true;
+	}
+
+	/**
+	 * Removes a value from the set.
+	 * @param value to remove.
+	 * @return true if the set contained the value.
+	*/
+	boolean remove(long value) {
+		if(FREE == value) {
+			if(!containsZero) {
+				return false;
+			}
+			containsZero = false;
+			--size;
+			return true;
+		}
+
+		int mask = table.length - 1;
+		int hole = findSlot(table, value);
+		if(value != table[hole]) {
+			return false;
+		}
+		int slot = hole;
+		while(FREE != table[slot = (slot + 1) & mask]) { // shift back the values of the probe sequence, that would be unreachable because of the hole
+			int home = mix(table[slot]) & mask;
+			if(((slot - home) & mask) >= ((slot - hole) & mask)) {
+				table[hole] = table[slot];
+				hole = slot;
+			}
+		}
+		table[hole] = FREE;
+		--size;
+		return true;
+	}
+
+	boolean contains(long value) {
+		if(FREE == value) {
+			return containsZero;
+		}
+		return value == table[findSlot(table, value)];
+	}
+
+	int size() {
+		return size;
+	}
+
+	LongStream stream() {
+		LongStream values = Arrays.stream(table).filter(value -> FREE != value);
+		return containsZero ? LongStream.concat(LongStream.of(FREE), values) : values;
+	}
+
+	/**
+	 * Returns the slot of the value, or the free slot where the value should be inserted.
+	*/
+	private static int findSlot(long[] table, long value) {
+		int mask = table.length - 1;
+		int slot = mix(value) & mask;
+		while(FREE != table[slot] && value != table[slot]) {
+			slot = (slot + 1) & mask;
+		}
+		return slot;
+	}
+
+	private static int mix(long value) {
+		long h = value * 0x9E3779B97F4A7C15L;
+		return (int) (h ^ (h >>> 32));
+	}
+
+	private void grow() {
+		long[] newTable = new long[table.length * 2];
+		Arrays.stream(table)
+			.filter(value -> FREE != value)
+			.forEach(value -> newTable[findSlot(newTable, value)] = value);
+		table = newTable;
+	}
+}
@@ -0,0 +1,202 @@
+package gogame;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * Opt-in instrumentation of the hot paths of GoState: latency and size histograms, and event counters, exposed as JMX MBeans ("gogame:type=Metrics,name=...")
+ * and as a periodic text dump.
+ * The metrics are enabled by the system property "gogame.metrics" (-Dgogame.metrics=true), and dumped to System.err
+ * every "gogame.metrics.dumpSeconds" seconds (if it's set). When they are disabled, the checks of ENABLED are constant false for the JIT compiler,
+ * so the instrumented methods run as if they weren't instrumented.
+*/
+public final class Metrics {
+	public static final boolean ENABLED = Boolean.getBoolean("gogame.metrics");
+
+	public static final Histogram IS_LEGAL_MOVE = new Histogram("isLegalMove", "ns");
+	public static final Histogram LIBERTIES_SCAN = new Histogram("getLibertiesScannedStones", "stones");
+	public static final Histogram CAPTURES = new Histogram("capturedChainSize", "stones");
+	public static final Histogram HISTORY_SIZE = new Histogram("historySize", "states");
+	public static final Histogram SAVE_GAME_TIME = new Histogram("saveGameTime", "ns");
+	public static final Histogram SAVE_GAME_SIZE = new Histogram("saveGameSize", "bytes");
+	public static final Histogram LOAD_GAME_TIME = new Histogram("loadGameTime", "ns");
+	public static final Histogram LOAD_GAME_SIZE = new Histogram("loadGameSize", "bytes");
+	public static final Counter ILLEGAL_MOVES = new Counter("illegalMoves");
+	private static final List<Histogram> HISTOGRAMS = List.of(IS_LEGAL_MOVE, LIBERTIES_SCAN, CAPTURES, HISTORY_SIZE,
+			SAVE_GAME_TIME, SAVE_GAME_SIZE, LOAD_GAME_TIME, LOAD_GAME_SIZE);
+	private static final List<Counter> COUNTERS = List.of(ILLEGAL_MOVES);
+
+	static {
+		if(ENABLED) {
+			registerMBeans();
+			long dumpSeconds = Long.getLong("gogame.metrics.dumpSeconds", 0);
+			if(0 < dumpSeconds) {
+				ScheduledExecutorService dumper = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().name("gogame-metrics").daemon().factory());
+				dumper.scheduleAtFixedRate(() -> System.err.println(dump()), dumpSeconds, dumpSeconds, TimeUnit.SECONDS);
+			}
+		}
+	}
+
+	private Metrics() {}
+
+	/**
+	 * The JMX view of a histogram.
+	*/
+	public interface HistogramMXBean {
+		String getUnit();
+		long getCount();
+		long getSum();
+		double getMean();
+		long getMax();
+		long getP50();
+		long getP99();
+		void reset();
+	}
+
+	/**
+	 * A histogram of non-negative values with power of 2 buckets: the bucket b holds the values from 2^(b - 1) to 2^b - 1 (the bucket 0 holds 0).
+	 * The percentiles are the upper bounds of the buckets, so they are exact within a factor of 2. Recording is thread-safe, and doesn't allocate.
+	*/
+	public static final class Histogram implements HistogramMXBean {
+		private static final int BUCKETS = Long.SIZE; // the bucket of a value is the number of its significant bits (at most 63)
+
+		private final String name;
+		private final String unit;
+		private final LongAdder[] buckets = new LongAdder[BUCKETS];
+		private final LongAdder count = new LongAdder();
+		private final LongAdder sum = new LongAdder();
+		private final LongAccumulator max = new LongAccumulator(Long::max, 0);
+
+		public Histogram(String name, String unit) {
+			this.name = name;
+			this.unit = unit;
+			for(int b = 0; b < BUCKETS; b++) {
+				buckets[b] = new LongAdder();
+			}
+		}
+
+		/**
+		 * @param value to record (negative values are recorded as 0).
+		*/
+		public void record(long value) {
+			value = Math.max(0, value);
+			buckets[Long.SIZE - Long.numberOfLeadingZeros(value)].increment();
+			count.increment();
+			sum.add(value);
+			max.accumulate(value);
+		}
+
+		/**
+		 * @param q the quantile (0 &lt; q &lt;= 1).
+		 * @return the upper bound of the bucket, that contains the quantile of the recorded values (0 if nothing was recorded).
+		*/
+		public long percentile(double q) {
+			long total = count.sum();
+			long rank = (long) Math.ceil(q * total);
+			long seen = 0;
+			for(int b = 0; b < BUCKETS; b++) {
+				seen += buckets[b].sum();
+				if(0 < seen && rank <= seen) {
+					return Math.min((1L << b) - 1, max.get());
+				}
+			}
+			return max.get();
+		}
+
+		public String getName() { return name; }
+		@Override public String getUnit() { return unit; }
+		@Override public long getCount() { return count.sum(); }
+		@Override public long getSum() { return sum.sum(); }
+		@Override public double getMean() { return 0 == getCount() ? 0 : (double) getSum() / getCount(); }
+		@Override public long getMax() { return max.get(); }
+		@Override public long getP50() { return percentile(0.5); }
+		@Override public long getP99() { return percentile(0.99); }
+
+		@Override
+		public void reset() {
+			for(LongAdder bucket : buckets) {
+				bucket.reset();
+			}
+			count.reset();
+			sum.reset();
+			max.reset();
+		}
+
+		@Override
+		public String toString() {
+			return "%s: count %d, mean %.1f %s, p50 <= %d, p99 <= %d, max %d".formatted(name, getCount(), getMean(), unit, getP50(), getP99(), getMax());
+		}
+	}
+
+	/**
+	 * The JMX view of a counter.
+	*/
+	public interface CounterMXBean {
+		long getCount();
+		void reset();
+	}
+
+	/**
+	 * A thread-safe counter of events.
+	*/
+	public static final class Counter implements CounterMXBean {
+		private final String name;
+		private final LongAdder count = new LongAdder();
+
+		public Counter(String name) {
+			this.name = name;
+		}
+
+		public void increment() {
+			count.increment();
+		}
+
+		public String getName() { return name; }
+		@Override public long getCount() { return count.sum(); }
+		@Override public void reset() { count.reset(); }
+
+		@Override
+		public String toString() {
+			return "%s: %d".formatted(name, getCount());
+		}
+	}
+
+	/**
+	 * @return the current values of every metric, one per line.
+	*/
+	public static String dump() {
+		return Stream.concat(HISTOGRAMS.stream().map(Histogram::toString), COUNTERS.stream().map(Counter::toString))
+				.collect(Collectors.joining("\n"));
+	}
+
+	/**
+	 * Clears every metric.
+	*/
+	public static void reset() {
+		HISTOGRAMS.forEach(Histogram::reset);
+		COUNTERS.forEach(Counter::reset);
+	}
+
+	private static void registerMBeans() {
+		try {
+			for(Histogram histogram : HISTOGRAMS) {
+				ManagementFactory.getPlatformMBeanServer().registerMBean(histogram, new ObjectName("gogame:type=Metrics,name=" + histogram.getName()));
+			}
+			for(Counter counter : COUNTERS) {
+				ManagementFactory.getPlatformMBeanServer().registerMBean(counter, new ObjectName("gogame:type=Metrics,name=" + counter.getName()));
+			}
+		} catch(JMException e) {
+			System.err.println("The metrics couldn't be registered: %s".formatted(e));
+		}
+	}
+}
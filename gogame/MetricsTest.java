@@ -0,0 +1,142 @@
+package gogame;
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeFalse;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.HashSet;
+import java.util.stream.LongStream;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+@DisplayName("Metrics tests")
+public class MetricsTest {
+	@DisplayName("Testing, that the histogram's percentiles are the upper bounds of the power of 2 buckets (but not more than the maximum).")
+	@ParameterizedTest(name = "Values: 0 ... {0}; quantile: {1}")
+	@CsvSource({
+		"0,    0.5,  0",
+		"1,    0.5,  0",
+		"1,    0.99, 1",
+		"100,  0.5,  63",
+		"100,  0.99, 100",
+		"1000, 0.5,  511",
+		"1000, 0.99, 1000",
+		"1000, 0.9,  1000",
+		"5000, 0.1,  511",
+	})
+	public void testPercentile(long maxValue, double q, long expected) {
+		Metrics.Histogram histogram = new Metrics.Histogram("test", "ns");
+		LongStream.rangeClosed(0, maxValue).forEach(histogram::record);
+		assertEquals(expected, histogram.percentile(q));
+	}
+	
+	@DisplayName("Testing, that the histogram counts the values, their sum and maximum, and that it can be reset.")
+	@Test
+	public void testCountsAndReset() {
+		Metrics.Histogram histogram = new Metrics.Histogram("test", "bytes");
+		histogram.record(3);
+		histogram.record(5);
+		histogram.record(Long.MAX_VALUE);
+		histogram.record(-7); // recorded as 0
+		assertAll(
+			() -> assertEquals(4, histogram.getCount()),
+			() -> assertEquals(Long.MAX_VALUE, histogram.getMax()),
+			() -> assertEquals(Long.MAX_VALUE, histogram.getP99()),
+			() -> assertTrue(histogram.toString().startsWith("test: count 4"))
+		);
+		
+		histogram.reset();
+		assertAll(
+			() -> assertEquals(0, histogram.getCount()),
+			() -> assertEquals(0, histogram.getSum()),
+			() -> assertEquals(0, histogram.getMean()),
+			() -> assertEquals(0, histogram.getP50())
+		);
+	}
+	
+	/**
+	 * Plays a short game on a GoState, that goes through every instrumented method: a capture, an illegal move, getLiberties, and saving and loading.
+	 * It's public, so it can be loaded by an other class loader.
+	*/
+	public static final class InstrumentedGame implements Runnable {
+		@Override
+		public void run() {
+			GoState state = new GoState(9);
+			state.makeMove(Point.of(0, 1));
+			state.makeMove(Point.of(0, 0));
+			state.makeMove(Point.of(1, 0)); // captures the white stone on (0, 0)
+			state.isLegalMove(Point.of(1, 0)); // illegal: the point is taken
+			state.getLiberties(Stone.BLACK, Point.of(1, 0), new HashSet<>());
+			try {
+				File file = File.createTempFile("testMetrics", ".go");
+				file.deleteOnExit();
+				state.saveGame(file);
+				GoState.loadGame(file);
+			} catch(IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}
+	}
+	
+	@DisplayName("Testing, that the disabled metrics record nothing.")
+	@Test
+	public void testDisabled() {
+		assumeFalse(Metrics.ENABLED);
+		new InstrumentedGame().run();
+		assertAll(
+			() -> assertEquals(0, Metrics.IS_LEGAL_MOVE.getCount()),
+			() -> assertEquals(0, Metrics.CAPTURES.getCount()),
+			() -> assertEquals(0, Metrics.HISTORY_SIZE.getCount()),
+			() -> assertEquals(0, Metrics.SAVE_GAME_SIZE.getCount()),
+			() -> assertEquals(0, Metrics.ILLEGAL_MOVES.getCount())
+		);
+	}
+	
+	@DisplayName("Testing, that the enabled metrics record the instrumented methods of GoState, and are registered as MXBeans.")
+	@Test
+	public void testEnabled() throws Exception {
+		// ENABLED is read once, when Metrics is initialized, so the game runs on classes loaded again with the property set
+		URL[] classpath = {
+			GoState.class.getProtectionDomain().getCodeSource().getLocation(),
+			MetricsTest.class.getProtectionDomain().getCodeSource().getLocation(),
+		};
+		MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+		String previous = System.setProperty("gogame.metrics", "true");
+		try(URLClassLoader loader = new URLClassLoader(classpath, ClassLoader.getPlatformClassLoader())) {
+			Runnable game = (Runnable) loader.loadClass(InstrumentedGame.class.getName()).getConstructor().newInstance();
+			game.run();
+			assertAll(
+				() -> assertTrue(server.isRegistered(new ObjectName("gogame:type=Metrics,name=isLegalMove"))),
+				() -> assertTrue(0 < (long) server.getAttribute(new ObjectName("gogame:type=Metrics,name=isLegalMove"), "Count")),
+				() -> assertEquals(2L, server.getAttribute(new ObjectName("gogame:type=Metrics,name=capturedChainSize"), "Count")), // the capture, and its replay by loadGame
+				() -> assertEquals(1L, server.getAttribute(new ObjectName("gogame:type=Metrics,name=capturedChainSize"), "Max")),
+				() -> assertTrue(3 <= (long) server.getAttribute(new ObjectName("gogame:type=Metrics,name=historySize"), "Count")), // the moves, and the replayed moves of the loaded game
+				() -> assertEquals(1L, server.getAttribute(new ObjectName("gogame:type=Metrics,name=getLibertiesScannedStones"), "Count")),
+				() -> assertEquals(1L, server.getAttribute(new ObjectName("gogame:type=Metrics,name=saveGameSize"), "Count")),
+				() -> assertEquals(1L, server.getAttribute(new ObjectName("gogame:type=Metrics,name=loadGameTime"), "Count")),
+				() -> assertEquals(1L, server.getAttribute(new ObjectName("gogame:type=Metrics,name=illegalMoves"), "Count"))
+			);
+		} finally {
+			if(null == previous) {
+				System.clearProperty("gogame.metrics");
+			} else {
+				System.setProperty("gogame.metrics", previous);
+			}
+			for(ObjectName name : server.queryNames(new ObjectName("gogame:type=Metrics,*"), null)) {
+				server.unregisterMBean(name);
+			}
+		}
+	}
+}
@@ -0,0 +1,18 @@
+package gogame;
+
+import java.util.List;
+
+/**
+ * The changes of a move on the board: the placed stone and the captured stones (or the same changes taken back, for an undone move).
+ * @param moveNumber the number of the move (1 is the first move of the state).
+ * @param player who made the move.
+ * @param point where the stone was placed, or null for a pass.
+ * @param captured the points of the stones, that the move captured.
+ * @param blackCaptured the stones captured by black, after the move (or after it was undone).
+ * @param whiteCaptured the stones captured by white, after the move (or after it was undone).
+*/
+public record MoveDelta(int moveNumber, Stone player, Point point, List<Point> captured, int blackCaptured, int whiteCaptured) {
+	public boolean isPass() {
+		return null == point;
+	}
+}
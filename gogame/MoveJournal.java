@@ -0,0 +1,291 @@
+package gogame;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.UnaryOperator;
+
+/**
+ * An append-only journal of a game's moves, so every move is saved at the cost of a few bytes, instead of rewriting the whole game.
+ * The journal starts with a snapshot of the state (in the format of GameFile), then a 4 byte record is appended for every move (and undo)
+ * of the state, which the journal receives as a MoveListener.
+ * The records are written and forced to the disk by a background thread in batches (group commit): the records appended while a batch is forced,
+ * are forced together by the next fsync. sync() waits until the records appended so far are durable.
+ * After a crash, recover() replays the journal into a GoState; a torn record at the end of the file is ignored.
+ * The journal is crash-safe only from the return of create(): until then the file (or its rename) may not be durable yet.
+ * If a batch can't be written, the journal fails: sync() and every later move of the state throw, because the file can't follow the state any more.
+ * <pre>
+ * header: magic "GOJL" (4 bytes), version (4 bytes), the length of the snapshot (4 bytes), the snapshot
+ * record: kind (1 byte: 0 black's move, 1 white's move, 2 undo), the index of the point or PASS (2 bytes), check (1 byte)
+ * </pre>
+*/
+public final class MoveJournal implements MoveListener, Closeable {
+	private static final int MAGIC = 0x474F4A4C; // "GOJL"
+	private static final int VERSION = 1;
+	private static final int HEADER_SIZE = 12;
+	private static final int RECORD_SIZE = 4;
+	private static final int PASS = 0xFFFF;
+	private static final byte UNDO = 2;
+
+	private final GoState state;
+	private final FileChannel channel;
+	private final ReentrantLock lock = new ReentrantLock(); // not synchronized, so waiting virtual threads don't pin their carriers
+	private final Condition appendedRecords = lock.newCondition();
+	private final Condition forcedRecords = lock.newCondition();
+	private ByteBuffer pending = ByteBuffer.allocate(64 * RECORD_SIZE); // the records not yet written, guarded by "lock"
+	private ByteBuffer writing = ByteBuffer.allocate(64 * RECORD_SIZE); // the batch written by the flusher
+	private long appended; // the number of appended records, guarded by "lock"
+	private long durable; // the number of forced records, guarded by "lock"
+	private IOException failure; // the error of the flusher, guarded by "lock"
+	private boolean closed; // guarded by "lock"
+	private final Thread flusher; // a virtual thread, so a server can journal many games
+
+	private MoveJournal(GoState state, FileChannel channel) {
+		this.state = state;
+		this.channel = channel;
+		flusher = Thread.ofVirtual().name("gogame-journal").start(this::flush);
+	}
+
+	/**
+	 * Starts a new journal of a state: writes its snapshot (atomically replacing the file, so a recovered journal can be compacted by starting
+	 * a new one from the recovered state), and subscribes to the state's moves.
+	 * @param path of the journal.
+	 * @param state to journal, its moves must be made on one thread.
+	 * @return the journal, it has to be closed.
+	*/
+	public static MoveJournal create(Path path, GoState state) throws IOException {
+		return create(path, state, UnaryOperator.identity());
+	}
+
+	/**
+	 * Starts a new journal of a state.
+	 * @param path of the journal.
+	 * @param state to journal, its moves must be made on one thread.
+	 * @param channels wraps the channel of the journal's file (the tests inject failures with it).
+	 * @return the journal, it has to be closed.
+	*/
+	static MoveJournal create(Path path, GoState state, UnaryOperator<FileChannel> channels) throws IOException {
+		ByteArrayOutputStream snapshot = new ByteArrayOutputStream();
+		GameFile.write(state, new DataOutputStream(snapshot));
+		ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE + snapshot.size())
+				.putInt(MAGIC)
+				.putInt(VERSION)
+				.putInt(snapshot.size())
+				.put(snapshot.toByteArray())
+				.flip();
+
+		Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+		FileChannel channel = channels.apply(FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE));
+		try {
+			while(header.hasRemaining()) {
+				channel.write(header);
+			}
+			channel.force(true);
+			Files.move(temporary, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING); // the open channel writes the moved file
+			try(FileChannel directory = FileChannel.open(path.toAbsolutePath().getParent(), StandardOpenOption.READ)) {
+				directory.force(true); // the rename is durable only after its directory is forced
+			}
+		} catch(IOException | RuntimeException e) {
+			channel.close();
+			throw e;
+		}
+		MoveJournal journal = new MoveJournal(state, channel);
+		state.addMoveListener(journal);
+		return journal;
+	}
+
+	/**
+	 * Replays a journal.
+	 * @param path of the journal.
+	 * @return the state after the last complete record (with the history of every move).
+	*/
+	public static GoState recover(Path path) throws IOException {
+		ByteBuffer journal = ByteBuffer.wrap(Files.readAllBytes(path));
+		if(journal.remaining() < HEADER_SIZE || MAGIC != journal.getInt() || VERSION != journal.getInt()) {
+			throw new IOException("Not a move journal: %s".formatted(path));
+		}
+		int snapshotSize = journal.getInt();
+		if(journal.remaining() < snapshotSize) {
+			throw new IOException("Incomplete snapshot: %s".formatted(path));
+		}
+		GoState state;
+		try {
+			state = GameFile.read(new ByteArrayInputStream(journal.array(), HEADER_SIZE, snapshotSize));
+		} catch(ClassNotFoundException e) {
+			throw new IOException("Invalid snapshot: %s".formatted(path), e);
+		}
+		journal.position(HEADER_SIZE + snapshotSize);
+
+		int size = state.getSize();
+		while(RECORD_SIZE <= journal.remaining()) {
+			byte kind = journal.get();
+			int move = Short.toUnsignedInt(journal.getShort());
+			if(journal.get() != check(kind, move)) {
+				break; // a torn record, the end of the journal
+			}
+			if(UNDO == kind) {
+				state.unmakeMove();
+				continue;
+			}
+			state.turn = 0 == kind ? Stone.BLACK : Stone.WHITE;
+			Point p = PASS == move ? null : Point.of(move % size, move / size);
+			if(null == p || state.isLegalMove(p)) {
+				state.makeMove(p);
+			} else if(BoardSpace.EMPTY == state.getBoardSpace(move)) {
+				state.placeStone(p); // a move tried by placeStone (without the superko check), it's undone by the next record
+			} else {
+				throw new IOException("Invalid move in the journal: %s".formatted(p));
+			}
+		}
+		return state;
+	}
+
+	@Override
+	public void moveMade(MoveDelta delta) {
+		int move = delta.isPass() ? PASS : delta.point().index(state.getSize());
+		append((byte) (Stone.BLACK == delta.player() ? 0 : 1), move);
+	}
+
+	@Override
+	public void moveUndone(MoveDelta delta) {
+		append(UNDO, 0);
+	}
+
+	private void append(byte kind, int move) {
+		lock.lock();
+		try {
+			if(closed) {
+				throw new IllegalStateException("The journal is closed");
+			}
+			if(null != failure) { // the flusher stopped, the record would never be written
+				throw new UncheckedIOException("The journal couldn't be written", failure);
+			}
+			if(!pending.hasRemaining()) {
+				pending = ByteBuffer.allocate(2 * pending.capacity()).put(pending.flip());
+			}
+			pending.put(kind).putShort((short) move).put(check(kind, move));
+			++appended;
+			appendedRecords.signal();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	private static byte check(byte kind, int move) {
+		return (byte) (kind ^ move ^ move >>> 8 ^ 0xA5); // never 0 for the 0 bytes of a torn record
+	}
+
+	/**
+	 * Writes and forces the appended records in batches, until the journal is closed.
+	*/
+	private void flush() {
+		while(true) {
+			long batchEnd;
+			lock.lock();
+			try {
+				while(0 == pending.position() && !closed) {
+					appendedRecords.awaitUninterruptibly();
+				}
+				if(0 == pending.position()) {
+					return; // closed, and everything is written
+				}
+				ByteBuffer batch = pending; // the appends continue in the other buffer, while this one is written
+				pending = writing.clear();
+				writing = batch.flip();
+				batchEnd = appended;
+			} finally {
+				lock.unlock();
+			}
+
+			IOException error = null;
+			try {
+				while(writing.hasRemaining()) {
+					channel.write(writing);
+				}
+				channel.force(false);
+			} catch(IOException e) {
+				error = e;
+			}
+
+			lock.lock();
+			try {
+				if(null == error) {
+					durable = batchEnd;
+				} else {
+					failure = error;
+				}
+				forcedRecords.signalAll();
+				if(null != error) {
+					return;
+				}
+			} finally {
+				lock.unlock();
+			}
+		}
+	}
+
+	/**
+	 * Waits until every record appended so far is forced to the disk.
+	 * @throws IOException if the records couldn't be written.
+	*/
+	public void sync() throws IOException {
+		lock.lock();
+		try {
+			long target = appended;
+			while(durable < target && null == failure) {
+				forcedRecords.awaitUninterruptibly();
+			}
+			if(null != failure) {
+				throw new IOException("The journal couldn't be written", failure);
+			}
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * @return the number of records appended (moves and undos).
+	*/
+	public long getRecordCount() {
+		lock.lock();
+		try {
+			return appended;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Unsubscribes from the state, forces the appended records, and closes the file.
+	*/
+	@Override
+	public void close() throws IOException {
+		state.removeMoveListener(this);
+		lock.lock();
+		try {
+			closed = true;
+			appendedRecords.signal();
+		} finally {
+			lock.unlock();
+		}
+		try {
+			flusher.join();
+		} catch(InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		try(channel) {
+			sync();
+		}
+	}
+}
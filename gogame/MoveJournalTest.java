@@ -0,0 +1,176 @@
+package gogame;
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+@DisplayName("MoveJournal tests")
+public class MoveJournalTest {
+	@TempDir
+	Path directory;
+
+	/**
+	 * Plays random legal moves (and some passes) on a state.
+	*/
+	private static void playRandomMoves(GoState state, int moves, long seed) {
+		SplittableRandom random = new SplittableRandom(seed);
+		int size = state.getSize();
+		for(int move = 0; move < moves; move++) {
+			Point p = Point.of(random.nextInt(size), random.nextInt(size));
+			state.makeMove(0 == random.nextInt(10) || !state.isLegalMove(p) ? null : p);
+		}
+	}
+
+	/**
+	 * A file channel, that fails every write and force after "failing" is set.
+	*/
+	private static final class FailingChannel extends FileChannel {
+		private final FileChannel channel;
+		volatile boolean failing;
+
+		FailingChannel(FileChannel channel) {
+			this.channel = channel;
+		}
+
+		private void check() throws IOException {
+			if(failing) {
+				throw new IOException("Injected failure");
+			}
+		}
+
+		@Override public int read(ByteBuffer dst) throws IOException { return channel.read(dst); }
+		@Override public long read(ByteBuffer[] dsts, int offset, int length) throws IOException { return channel.read(dsts, offset, length); }
+		@Override public int write(ByteBuffer src) throws IOException { check(); return channel.write(src); }
+		@Override public long write(ByteBuffer[] srcs, int offset, int length) throws IOException { check(); return channel.write(srcs, offset, length); }
+		@Override public long position() throws IOException { return channel.position(); }
+		@Override public FileChannel position(long newPosition) throws IOException { channel.position(newPosition); return this; }
+		@Override public long size() throws IOException { return channel.size(); }
+		@Override public FileChannel truncate(long size) throws IOException { check(); channel.truncate(size); return this; }
+		@Override public void force(boolean metaData) throws IOException { check(); channel.force(metaData); }
+		@Override public long transferTo(long position, long count, WritableByteChannel target) throws IOException { return channel.transferTo(position, count, target); }
+		@Override public long transferFrom(ReadableByteChannel src, long position, long count) throws IOException { check(); return channel.transferFrom(src, position, count); }
+		@Override public int read(ByteBuffer dst, long position) throws IOException { return channel.read(dst, position); }
+		@Override public int write(ByteBuffer src, long position) throws IOException { check(); return channel.write(src, position); }
+		@Override public MappedByteBuffer map(MapMode mode, long position, long size) throws IOException { return channel.map(mode, position, size); }
+		@Override public FileLock lock(long position, long size, boolean shared) throws IOException { return channel.lock(position, size, shared); }
+		@Override public FileLock tryLock(long position, long size, boolean shared) throws IOException { return channel.tryLock(position, size, shared); }
+		@Override protected void implCloseChannel() throws IOException { channel.close(); }
+	}
+
+	private static void assertSameGame(GoState expected, GoState actual) {
+		assertAll(
+			() -> assertEquals(expected, actual),
+			() -> assertEquals(expected.getMoveCount(), actual.getMoveCount()),
+			() -> assertEquals(expected.getBlackCaptured(), actual.getBlackCaptured()),
+			() -> assertEquals(expected.getWhiteCaptured(), actual.getWhiteCaptured()),
+			() -> assertEquals(expected.getPrevStates(), actual.getPrevStates())
+		);
+	}
+
+	@DisplayName("Testing, that a recovered journal replays every move and undo of the state.")
+	@ParameterizedTest
+	@ValueSource(ints = {9, 13, 19})
+	public void testRecover(int size) throws IOException {
+		Path path = directory.resolve("game.gojl");
+		GoState state = new GoState(size);
+		playRandomMoves(state, 10, size); // moves before the journal are in its snapshot
+		try(MoveJournal journal = MoveJournal.create(path, state)) {
+			playRandomMoves(state, 150, size + 1);
+			state.unmakeMove();
+			state.unmakeMove();
+			playRandomMoves(state, 10, size + 2);
+			journal.sync();
+			assertEquals(162, journal.getRecordCount());
+			assertSameGame(state, MoveJournal.recover(path)); // recovered while the journal is open
+		}
+		assertSameGame(state, MoveJournal.recover(path));
+	}
+
+	@DisplayName("Testing, that a torn record at the end of the journal is ignored.")
+	@Test
+	public void testTornRecord() throws IOException {
+		Path path = directory.resolve("game.gojl");
+		GoState state = new GoState(9);
+		GoState beforeLastMove;
+		try(MoveJournal journal = MoveJournal.create(path, state)) {
+			playRandomMoves(state, 40, 1);
+			beforeLastMove = new GoState(state);
+			state.makeMove(null);
+			journal.sync();
+			assertEquals(41, journal.getRecordCount());
+		}
+		byte[] bytes = Files.readAllBytes(path);
+		Files.write(path, Arrays.copyOf(bytes, bytes.length - 1)); // the last record is partially written
+		assertSameGame(beforeLastMove, MoveJournal.recover(path));
+
+		bytes[bytes.length - 2] = 0; // the last record is written, but its content isn't
+		bytes[bytes.length - 1] = 0;
+		Files.write(path, bytes);
+		assertSameGame(beforeLastMove, MoveJournal.recover(path));
+	}
+
+	@DisplayName("Testing, that a journal can be recovered, and continued from the recovered state.")
+	@Test
+	public void testContinue() throws IOException {
+		Path path = directory.resolve("game.gojl");
+		GoState state = new GoState(9);
+		try(MoveJournal journal = MoveJournal.create(path, state)) {
+			playRandomMoves(state, 30, 2);
+			journal.sync();
+			assertEquals(30, journal.getRecordCount());
+		}
+		GoState recovered = MoveJournal.recover(path);
+		try(MoveJournal journal = MoveJournal.create(path, recovered)) { // rewrites the journal with the recovered state as the snapshot
+			playRandomMoves(recovered, 30, 3);
+			playRandomMoves(state, 30, 3);
+			journal.sync();
+			assertEquals(30, journal.getRecordCount()); // the records after the snapshot of the recovered state
+		}
+		assertSameGame(state, MoveJournal.recover(path));
+	}
+
+	@DisplayName("Testing, that a file, that isn't a journal, isn't recovered.")
+	@Test
+	public void testInvalidJournal() throws IOException {
+		Path path = directory.resolve("game.gojl");
+		Files.write(path, new byte[] {'G', 'O', 'J', 'L'});
+		assertThrows(IOException.class, () -> MoveJournal.recover(path));
+	}
+
+	@DisplayName("Testing, that a journal fails after a write error: sync throws, the later moves are rejected, and the durable moves are recovered.")
+	@Test
+	public void testFailure() throws IOException {
+		Path path = directory.resolve("game.gojl");
+		GoState state = new GoState(9);
+		FailingChannel[] channel = new FailingChannel[1];
+		MoveJournal journal = MoveJournal.create(path, state, c -> channel[0] = new FailingChannel(c));
+		state.makeMove(Point.of(4, 4));
+		journal.sync();
+
+		channel[0].failing = true;
+		state.makeMove(Point.of(3, 3));
+		assertThrows(IOException.class, journal::sync);
+		assertThrows(UncheckedIOException.class, () -> state.makeMove(Point.of(2, 2))); // the flusher stopped, so the record isn't kept
+		assertEquals(2, journal.getRecordCount());
+		assertThrows(IOException.class, journal::close);
+		assertEquals(1, MoveJournal.recover(path).getMoveCount());
+	}
+}
@@ -0,0 +1,19 @@
+package gogame;
+
+/**
+ * Receives the moves of a GoState, as they are made (and taken back), so the board doesn't have to be compared or read again.
+ * The listeners are called on the thread, that made the move, before the move's method returns.
+*/
+public interface MoveListener {
+	/**
+	 * Called after a move (a stone placement or a pass) was made.
+	 * @param delta the changes of the move.
+	*/
+	void moveMade(MoveDelta delta);
+	
+	/**
+	 * Called after a move was taken back by unmakeMove: the delta's stone was removed, and its captured stones were put back.
+	 * @param delta the changes of the undone move (with the captured stones after the undo).
+	*/
+	default void moveUndone(MoveDelta delta) {}
+}
@@ -0,0 +1,78 @@
+package gogame;
+
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Precomputed neighbors of every point of a board, so the neighbors can be iterated without allocating Points.
+ * The points are identified by their index: y * size + x. The neighbors of a point are in the order: up, right, down, left (the ones outside of the board are left out).
+ * The tables of the BoardSizes are built once, and shared by every GoState.
+*/
+public final class NeighborTable {
+	private static final Map<BoardSize, NeighborTable> TABLES = new EnumMap<>(BoardSize.class);
+	static {
+		Arrays.stream(BoardSize.values())
+			.forEach(boardSize -> TABLES.put(boardSize, new NeighborTable(boardSize.getSize())));
+	}
+
+	private final int size;
+	private final int[] neighbors; // the neighbors of the point i are at indices 4 * i ... 4 * i + counts[i] - 1
+	private final byte[] counts;
+
+	private NeighborTable(int size) {
+		this.size = size;
+		neighbors = new int[4 * size * size];
+		counts = new byte[size * size];
+		for(int y = 0; y < size; y++) {
+			for(int x = 0; x < size; x++) {
+				int i = y * size + x;
+				int count = 0;
+				if(0 < y) {
+					neighbors[4 * i + count++] = i - size;
+				}
+				if(x < size - 1) {
+					neighbors[4 * i + count++] = i + 1;
+				}
+				if(y < size - 1) {
+					neighbors[4 * i + count++] = i + size;
+				}
+				if(0 < x) {
+					neighbors[4 * i + count++] = i - 1;
+				}
+				counts[i] = (byte) count;
+			}
+		}
+	}
+
+	/**
+	 * Returns the neighbor table of a board size.
+	 * @param size of the board.
+	 * @return the shared table, if the size is one of the BoardSizes, otherwise a newly built table.
+	*/
+	public static NeighborTable of(int size) {
+		return TABLES.values().stream()
+				.filter(table -> size == table.size)
+				.findFirst()
+				.orElseGet(() -> new NeighborTable(size));
+	}
+
+	public int getSize() { return size; }
+
+	/**
+	 * @param i index of a point.
+	 * @return the number of neighbors of the point (2, 3 or 4).
+	*/
+	public int count(int i) {
+		return counts[i];
+	}
+
+	/**
+	 * @param i index of a point.
+	 * @param k the neighbor's position in the order (0 &lt;= k &lt; count(i)).
+	 * @return the index of the k-th neighbor of the point.
+	*/
+	public int neighbor(int i, int k) {
+		return neighbors[4 * i + k];
+	}
+}
@@ -0,0 +1,38 @@
+package gogame;
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ArgumentsSource;
+
+@DisplayName("NeighborTable tests")
+public class NeighborTableTest {
+	@DisplayName("Testing, that the precomputed tables contain the actual neighbors of a given point, in the same order as \"getNeighbors\".")
+	@ParameterizedTest(name = "Board size: {0}; Point: {1}")
+	@ArgumentsSource(NeighborPointsArgumentProvider.class)
+	public void testNeighbors(int boardSize, Point inputPoint, List<Point> expectedNeighbors) {
+		NeighborTable table = NeighborTable.of(boardSize);
+		int i = inputPoint.y * boardSize + inputPoint.x;
+		List<Point> neighbors = IntStream.range(0, table.count(i))
+				.map(k -> table.neighbor(i, k))
+				.mapToObj(n -> new Point(n % boardSize, n / boardSize))
+				.toList();
+		assertEquals(expectedNeighbors, neighbors);
+	}
+	
+	@DisplayName("Testing, that the tables of the BoardSizes are built only once.")
+	@Test
+	public void testTablesShared() {
+		assertAll(
+				Arrays.stream(BoardSize.values())
+					.map(boardSize -> () -> assertSame(NeighborTable.of(boardSize.getSize()), NeighborTable.of(boardSize.getSize())))
+		);
+	}
+}
@@ -0,0 +1,189 @@
+package gogame;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Enumerates every legal move sequence of a given length from a position (like the "perft" of chess engines), and counts the positions at the end of the sequences.
+ * The counts only depend on the rules, so they can be compared between versions of the rules engine, and the time of the enumeration
+ * measures the throughput of isLegalMove and makeMove. The moves are the legal stone placements and the pass;
+ * a sequence stops early, when two passes end the game (the ended game is counted only, if it's at the full length).
+ * Usage: Perft [-s] [depth] [position file]
+ * (the position file is in the format of GoStateParser, the empty 9x9 board by default; -s enumerates on one thread).
+*/
+public final class Perft {
+	private static final int PARALLEL_DEPTH = 3; // the subtrees of smaller depth are enumerated by one task, they are too small to split
+
+	/**
+	 * The counts of an enumeration (the captures and Ko rejections are counted at the last move of the sequences).
+	 * @param nodes the number of positions at the given depth.
+	 * @param captures the number of last moves, that captured stones.
+	 * @param koRejections the number of last moves, that would be legal, but repeat a previous state.
+	*/
+	public record Counts(long nodes, long captures, long koRejections) {
+		public Counts plus(Counts o) {
+			return new Counts(nodes + o.nodes, captures + o.captures, koRejections + o.koRejections);
+		}
+	}
+
+	/**
+	 * The counts of a sequential enumeration (a mutable accumulator, so the nodes don't allocate).
+	*/
+	private static final class Counter {
+		private long nodes;
+		private long captures;
+		private long koRejections;
+
+		private Counts toCounts() {
+			return new Counts(nodes, captures, koRejections);
+		}
+	}
+
+	private Perft() {}
+
+	/**
+	 * Enumerates the move sequences on the calling thread.
+	 * @param state the starting position, it's restored when the method returns.
+	 * @param depth the length of the sequences (0 counts the position itself).
+	 * @return the counts of the positions at the given depth.
+	*/
+	public static Counts perft(GoState state, int depth) {
+		if(depth < 0) {
+			throw new IllegalArgumentException("Invalid depth: %d".formatted(depth));
+		}
+		if(0 == depth) {
+			return new Counts(1, 0, 0);
+		}
+		Counter counter = new Counter();
+		expand(state, depth, counter);
+		return counter.toCounts();
+	}
+
+	/**
+	 * Enumerates the move sequences in parallel: the subtrees of the moves are enumerated by fork-join tasks, on copies of the position.
+	 * @param state the starting position, it isn't modified.
+	 * @param depth the length of the sequences (0 counts the position itself).
+	 * @param pool that runs the tasks.
+	 * @return the counts of the positions at the given depth (the same as the sequential enumeration's).
+	*/
+	public static Counts perft(GoState state, int depth, ForkJoinPool pool) {
+		if(depth < 0) {
+			throw new IllegalArgumentException("Invalid depth: %d".formatted(depth));
+		}
+		return pool.invoke(new PerftTask(new GoState(state), depth));
+	}
+
+	/**
+	 * Plays every legal move (and the pass) of the position, and enumerates the subtrees with depth - 1.
+	 * @param depth at least 1.
+	*/
+	private static void expand(GoState state, int depth, Counter counter) {
+		int size = state.getSize();
+		for(int i = 0; i < size * size; i++) {
+			if(BoardSpace.EMPTY != state.getBoardSpace(i)) {
+				continue;
+			}
+			Point p = Point.of(i % size, i / size);
+			if(!state.isLegalMove(p)) {
+				if(1 == depth && isKoRejection(state, p)) {
+					++counter.koRejections;
+				}
+				continue;
+			}
+			int captured = state.getBlackCaptured() + state.getWhiteCaptured();
+			state.makeMove(p);
+			if(1 == depth) {
+				++counter.nodes;
+				if(captured != state.getBlackCaptured() + state.getWhiteCaptured()) {
+					++counter.captures;
+				}
+			} else {
+				expand(state, depth - 1, counter);
+			}
+			state.unmakeMove();
+		}
+
+		boolean ended = state.makeMove(null);
+		if(1 == depth) {
+			++counter.nodes;
+		} else if(!ended) {
+			expand(state, depth - 1, counter);
+		}
+		state.unmakeMove();
+	}
+
+	/**
+	 * Checks whether an illegal move on an empty point was rejected only because of the repetition (it isn't suicidal).
+	*/
+	private static boolean isKoRejection(GoState state, Point p) {
+		state.placeStone(p); // the move without the superko check
+		boolean stays = BoardSpace.EMPTY != state.getBoardSpace(p);
+		state.unmakeMove();
+		return stays;
+	}
+
+	/**
+	 * Enumerates a subtree: forks a task for every move, if the subtree is big enough, otherwise enumerates it sequentially.
+	*/
+	private static final class PerftTask extends RecursiveTask<Counts> {
+		private static final long serialVersionUID = 1;
+		private final GoState state; // owned by the task
+		private final int depth;
+
+		private PerftTask(GoState state, int depth) {
+			this.state = state;
+			this.depth = depth;
+		}
+
+		@Override
+		protected Counts compute() {
+			if(depth < PARALLEL_DEPTH) {
+				return perft(state, depth);
+			}
+			List<PerftTask> tasks = new ArrayList<>();
+			int size = state.getSize();
+			for(int i = 0; i < size * size; i++) {
+				Point p = Point.of(i % size, i / size);
+				if(BoardSpace.EMPTY == state.getBoardSpace(i) && state.isLegalMove(p)) {
+					GoState child = new GoState(state);
+					child.makeMove(p);
+					tasks.add(new PerftTask(child, depth - 1));
+				}
+			}
+			GoState child = new GoState(state);
+			if(!child.makeMove(null)) { // the ended game has no positions at the full length
+				tasks.add(new PerftTask(child, depth - 1));
+			}
+			return ForkJoinTask.invokeAll(tasks).stream()
+					.map(ForkJoinTask::join)
+					.reduce(new Counts(0, 0, 0), Counts::plus);
+		}
+	}
+
+	public static void main(String[] args) throws IOException {
+		boolean sequential = 0 < args.length && "-s".equals(args[0]);
+		List<String> rest = List.of(args).subList(sequential ? 1 : 0, args.length);
+		if(rest.isEmpty() || 2 < rest.size()) {
+			System.err.println("Usage: Perft [-s] [depth] [position file]");
+			System.exit(1);
+		}
+		int maxDepth = Integer.parseInt(rest.get(0));
+		GoState state = 2 == rest.size()
+				? GoStateParser.parseGoState(Files.readString(Path.of(rest.get(1))).strip())
+				: new GoState(BoardSize.NINE.getSize());
+
+		for(int depth = 1; depth <= maxDepth; depth++) {
+			long start = System.nanoTime();
+			Counts counts = sequential ? perft(state, depth) : perft(state, depth, ForkJoinPool.commonPool());
+			double seconds = (System.nanoTime() - start) / 1e9;
+			System.out.println("depth %d: %d nodes, %d captures, %d ko rejections (%.3f s, %.0f nodes/s)".formatted(
+					depth, counts.nodes(), counts.captures(), counts.koRejections(), seconds, counts.nodes() / seconds));
+		}
+	}
+}
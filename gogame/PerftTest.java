@@ -0,0 +1,39 @@
+package gogame;
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+@DisplayName("Perft tests")
+public class PerftTest {
+	@DisplayName("Testing, that the enumeration counts the same nodes, captures and Ko rejections, as the original rules engine (the golden counts), sequentially and in parallel.")
+	@ParameterizedTest(name = "{0}; depth: {1}")
+	@CsvSource(delimiter = '|', value = {
+		"_,_,_/_,_,_/_,_,_                                 | 4 |     5281 |  112 |  0",
+		"_,_,_/_,_,_/_,_,_                                 | 5 |    33384 | 1640 |  0",
+		"_,B,W,_/B,W,_,W/_,B,W,_/_,_,_,_                   | 3 |      576 |   74 |  7",
+		"_,B,W,_/B,W,_,W/_,B,W,_/_,_,_,_                   | 4 |     4086 |  665 | 62",
+		"_,B,W,_,_/B,W,W,B,_/_,B,B,W,_/W,_,W,_,B/_,W,_,B,_ | 3 |     1061 |  114 |  9",
+		"_,_,_,_,_,_,_,_,_/_,_,_,_,_,_,_,_,_/_,_,_,_,_,_,_,_,_/_,_,_,_,_,_,_,_,_/_,_,_,_,_,_,_,_,_/_,_,_,_,_,_,_,_,_/_,_,_,_,_,_,_,_,_/_,_,_,_,_,_,_,_,_/_,_,_,_,_,_,_,_,_ | 3 | 531522 | 8 | 0",
+	})
+	public void testGoldenCounts(String position, int depth, long nodes, long captures, long koRejections) {
+		GoState state = GoStateParser.parseGoState(position.replace('/', '\n'));
+		GoState original = new GoState(state);
+		Perft.Counts expected = new Perft.Counts(nodes, captures, koRejections);
+		Perft.Counts sequential = Perft.perft(state, depth);
+		Perft.Counts parallel;
+		try(ForkJoinPool pool = new ForkJoinPool(4)) {
+			parallel = Perft.perft(state, depth, pool);
+		}
+		assertAll(
+			() -> assertEquals(expected, sequential),
+			() -> assertEquals(expected, parallel),
+			() -> assertEquals(original, state), // the position is restored
+			() -> assertEquals(0, state.getMoveCount())
+		);
+	}
+}
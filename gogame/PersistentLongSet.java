@@ -0,0 +1,131 @@
+package gogame;
+
+import java.util.function.LongConsumer;
+
+/**
+ * An immutable set of primitive longs: add returns a new set, that shares every unchanged node with the original one (a hash array mapped trie).
+ * The values are hashes, so their bits are used directly: a node branches on 6 bits of the value (64 children, found by the bitmaps),
+ * and a value is stored as a leaf, until an other value with the same bits up to that level is added.
+*/
+final class PersistentLongSet {
+	static final PersistentLongSet EMPTY = new PersistentLongSet(Node.EMPTY, 0);
+	private static final int BITS = 6;
+
+	private static final class Node {
+		private static final Node EMPTY = new Node(0, new long[0], 0, new Node[0]);
+
+		private final long leafMap; // the bit b is set, if the leaf of the branch b is in "leaves"
+		private final long[] leaves; // ordered by the branches
+		private final long nodeMap; // the bit b is set, if the branch b is a child node in "nodes"
+		private final Node[] nodes; // ordered by the branches
+
+		private Node(long leafMap, long[] leaves, long nodeMap, Node[] nodes) {
+			this.leafMap = leafMap;
+			this.leaves = leaves;
+			this.nodeMap = nodeMap;
+			this.nodes = nodes;
+		}
+	}
+
+	private final Node root;
+	private final int size;
+
+	private PersistentLongSet(Node root, int size) {
+		this.root = root;
+		this.size = size;
+	}
+
+	int size() { return size; }
+
+	boolean contains(long value) {
+		Node node = root;
+		for(int shift = 0; ; shift += BITS) {
+			long bit = 1L << (value >>> shift);
+			if(0 != (node.leafMap & bit)) {
+				return value == node.leaves[Long.bitCount(node.leafMap & bit - 1)];
+			}
+			if(0 == (node.nodeMap & bit)) {
+				return false;
+			}
+			node = node.nodes[Long.bitCount(node.nodeMap & bit - 1)];
+		}
+	}
+
+	/**
+	 * @param value to add.
+	 * @return the set with the value (this set, if it contains the value already).
+	*/
+	PersistentLongSet add(long value) {
+		Node added = add(root, value, 0);
+		return root == added ? this : new PersistentLongSet(added, size + 1);
+	}
+
+	/**
+	 * Copies the path to the value's branch, the other nodes are shared.
+	*/
+	private static Node add(Node node, long value, int shift) {
+		long bit = 1L << (value >>> shift); // a long shift uses the lowest 6 bits of the distance, so this is the bit of (value >>> shift) & 63
+		if(0 != (node.nodeMap & bit)) {
+			int k = Long.bitCount(node.nodeMap & bit - 1);
+			Node child = add(node.nodes[k], value, shift + BITS);
+			if(child == node.nodes[k]) {
+				return node;
+			}
+			Node[] nodes = node.nodes.clone();
+			nodes[k] = child;
+			return new Node(node.leafMap, node.leaves, node.nodeMap, nodes);
+		}
+		if(0 == (node.leafMap & bit)) {
+			return new Node(node.leafMap | bit, insert(node.leaves, Long.bitCount(node.leafMap & bit - 1), value), node.nodeMap, node.nodes);
+		}
+		int k = Long.bitCount(node.leafMap & bit - 1);
+		long leaf = node.leaves[k];
+		if(value == leaf) {
+			return node;
+		}
+		// the leaf and the value share the branch: they move down to a new child node
+		Node child = pair(leaf, value, shift + BITS);
+		long[] leaves = new long[node.leaves.length - 1];
+		System.arraycopy(node.leaves, 0, leaves, 0, k);
+		System.arraycopy(node.leaves, k + 1, leaves, k, leaves.length - k);
+		int n = Long.bitCount(node.nodeMap & bit - 1);
+		Node[] nodes = new Node[node.nodes.length + 1];
+		System.arraycopy(node.nodes, 0, nodes, 0, n);
+		nodes[n] = child;
+		System.arraycopy(node.nodes, n, nodes, n + 1, node.nodes.length - n);
+		return new Node(node.leafMap & ~bit, leaves, node.nodeMap | bit, nodes);
+	}
+
+	/**
+	 * @return a node of two different values, that have the same bits before "shift" (they differ within 64 bits, so before shift reaches 64).
+	*/
+	private static Node pair(long a, long b, int shift) {
+		long bitA = 1L << (a >>> shift);
+		long bitB = 1L << (b >>> shift);
+		if(bitA == bitB) {
+			return new Node(0, Node.EMPTY.leaves, bitA, new Node[] { pair(a, b, shift + BITS) });
+		}
+		return new Node(bitA | bitB, Long.compareUnsigned(bitA, bitB) < 0 ? new long[] { a, b } : new long[] { b, a }, 0, Node.EMPTY.nodes);
+	}
+
+	private static long[] insert(long[] values, int k, long value) {
+		long[] inserted = new long[values.length + 1];
+		System.arraycopy(values, 0, inserted, 0, k);
+		inserted[k] = value;
+		System.arraycopy(values, k, inserted, k + 1, values.length - k);
+		return inserted;
+	}
+
+	void forEach(LongConsumer action) {
+		forEach(root, action);
+	}
+
+	private static void forEach(Node node, LongConsumer action) {
+		for(long leaf : node.leaves) {
+			action.accept(leaf);
+		}
+		for(Node child : node.nodes) {
+			forEach(child, action);
+		}
+	}
+}
@@ -1,6 +1,13 @@
 package gogame;
 
+import java.util.stream.IntStream;
+
 public final class Point {
+	private static final int CACHED_SIZE = BoardSize.NINETEEN.getSize(); // the points of the biggest board are cached, so every board's points are covered
+	private static final Point[] CACHE = IntStream.range(0, CACHED_SIZE * CACHED_SIZE)
+			.mapToObj(i -> new Point(i % CACHED_SIZE, i / CACHED_SIZE))
+			.toArray(Point[]::new);
+	
 	public final int x;
 	public final int y;
 	
@@ -9,6 +16,28 @@ public final class Point {
 		this.y = y;
 	}
 	
+	/**
+	 * Returns the Point of the given coordinates. The points of the boards are cached, so they are not allocated again.
+	 * @param x coordinate of the point.
+	 * @param y coordinate of the point.
+	 * @return the cached Point, if it's on a 19x19 board, otherwise a new Point.
+	*/
+	public static Point of(int x, int y) {
+		if(0 <= x && x < CACHED_SIZE && 0 <= y && y < CACHED_SIZE) {
+			return CACHE[y * CACHED_SIZE + x];
+		}
+		return new Point(x, y);
+	}
+	
+	/**
+	 * Returns the index of the point on a board (the points are numbered row by row).
+	 * @param size of the board.
+	 * @return y * size + x
+	*/
+	public int index(int size) {
+		return y * size + x;
+	}
+	
 	@Override
 	public boolean equals(Object o) {
 		if(this == o) {
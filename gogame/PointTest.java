@@ -0,0 +1,64 @@
+package gogame;
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.EnumSource;
+
+@DisplayName("Point tests")
+public class PointTest {
+	@DisplayName("Testing, that the points of every board size are interned, and equal to the newly created points.")
+	@ParameterizedTest
+	@EnumSource(BoardSize.class)
+	public void testInterned(BoardSize boardSize) {
+		int size = boardSize.getSize();
+		for(int y = 0; y < size; y++) {
+			for(int x = 0; x < size; x++) {
+				Point p = Point.of(x, y);
+				assertSame(p, Point.of(x, y));
+				assertEquals(new Point(x, y), p);
+				assertEquals(new Point(x, y).hashCode(), p.hashCode());
+				assertEquals(y * size + x, p.index(size));
+			}
+		}
+	}
+	
+	@DisplayName("Testing, that the points outside of the cache are new instances (with the right coordinates).")
+	@ParameterizedTest
+	@CsvSource({
+		"-1, 0",
+		"0, -1",
+		"19, 0",
+		"0, 19",
+		"19, 19",
+		"100, 3"
+	})
+	public void testNotCached(int x, int y) {
+		Point p = Point.of(x, y);
+		assertAll(
+			() -> assertNotSame(p, Point.of(x, y)),
+			() -> assertEquals(x, p.x),
+			() -> assertEquals(y, p.y),
+			() -> assertEquals(Point.of(x, y), p),
+			() -> assertEquals(Point.of(x, y).hashCode(), p.hashCode())
+		);
+	}
+	
+	@DisplayName("Testing equals and index with different coordinates and board sizes.")
+	@Test
+	public void testEqualsAndIndex() {
+		assertAll(
+			() -> assertNotEquals(Point.of(1, 2), Point.of(2, 1)),
+			() -> assertNotEquals(Point.of(1, 2), null),
+			() -> assertEquals(0, Point.of(0, 0).index(9)),
+			() -> assertEquals(2 * 13 + 5, Point.of(5, 2).index(13)),
+			() -> assertEquals(18 * 19 + 18, Point.of(18, 18).index(19))
+		);
+	}
+}
@@ -0,0 +1,301 @@
+package gogame;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * An immutable Go position: the board, the captured stones, the player to move and the history of the previous positions (for superko).
+ * A move returns a new position, that shares the unchanged rows of the board and the unchanged nodes of the history with its parent,
+ * so a position costs about a row and a path of the history per move. The positions can be kept and continued in any number of branches
+ * (see VariationTree): every branch has its own history, because a position is never modified.
+*/
+public final class Position {
+	private static final BoardSpace[] BOARD_SPACES = BoardSpace.values(); // the rows store the BoardSpaces' ordinals
+	private static final byte EMPTY = (byte) BoardSpace.EMPTY.ordinal();
+
+	private final int size;
+	private final byte[][] rows; // rows[y][x], the rows are never modified, so they are shared by the positions
+	private final int blackCaptured;
+	private final int whiteCaptured;
+	private final Stone turn;
+	private final long boardHash; // Zobrist hash of the stones on the board
+	private final PersistentLongSet history; // Zobrist hashes (getZobristHash) of the previous positions
+	private final NeighborTable neighbors;
+	private final long[] zobristKeys;
+
+	private Position(int size, byte[][] rows, int blackCaptured, int whiteCaptured, Stone turn, long boardHash, PersistentLongSet history) {
+		this.size = size;
+		this.rows = rows;
+		this.blackCaptured = blackCaptured;
+		this.whiteCaptured = whiteCaptured;
+		this.turn = turn;
+		this.boardHash = boardHash;
+		this.history = history;
+		neighbors = NeighborTable.of(size);
+		zobristKeys = Zobrist.keys(size);
+	}
+
+	private Position(Position parent, byte[][] rows, int blackCaptured, int whiteCaptured, long boardHash) {
+		size = parent.size;
+		this.rows = rows;
+		this.blackCaptured = blackCaptured;
+		this.whiteCaptured = whiteCaptured;
+		turn = parent.turn.opposite();
+		this.boardHash = boardHash;
+		history = parent.history.add(parent.getZobristHash());
+		neighbors = parent.neighbors;
+		zobristKeys = parent.zobristKeys;
+	}
+
+	/**
+	 * @param size of the board.
+	 * @return the empty board, black to move.
+	*/
+	public static Position empty(int size) {
+		byte[] emptyRow = new byte[size]; // every row of the empty board is the same array
+		byte[][] rows = new byte[size][];
+		Arrays.fill(rows, emptyRow);
+		return new Position(size, rows, 0, 0, Stone.BLACK, 0, PersistentLongSet.EMPTY);
+	}
+
+	/**
+	 * @param state to copy.
+	 * @return the position of the state (with its history).
+	*/
+	public static Position of(GoState state) {
+		int size = state.getSize();
+		byte[][] rows = new byte[size][size];
+		long boardHash = state.getZobristHash() ^ (Stone.WHITE == state.turn ? Zobrist.WHITE_TO_MOVE : 0);
+		for(int y = 0; y < size; y++) {
+			for(int x = 0; x < size; x++) {
+				rows[y][x] = (byte) state.getBoardSpace(x, y).ordinal();
+			}
+		}
+		PersistentLongSet history = PersistentLongSet.EMPTY;
+		for(long hash : state.getPrevStates()) {
+			history = history.add(hash);
+		}
+		return new Position(size, rows, state.getBlackCaptured(), state.getWhiteCaptured(), state.turn, boardHash, history);
+	}
+
+	/**
+	 * @return a GoState of the position (with its history), without moves to take back.
+	*/
+	public GoState toGoState() {
+		GoState state = new GoState(size);
+		for(int y = 0; y < size; y++) {
+			for(int x = 0; x < size; x++) {
+				state.setBoardSpace(x, y, getBoardSpace(x, y));
+			}
+		}
+		state.setCaptured(blackCaptured, whiteCaptured);
+		state.turn = turn;
+		history.forEach(state::addPrevState);
+		return state;
+	}
+
+	public int getSize() { return size; }
+	public Stone getTurn() { return turn; }
+	public int getBlackCaptured() { return blackCaptured; }
+	public int getWhiteCaptured() { return whiteCaptured; }
+
+	/**
+	 * @return the number of the previous positions.
+	*/
+	public int getHistorySize() { return history.size(); }
+
+	public BoardSpace getBoardSpace(int x, int y) {
+		return BOARD_SPACES[rows[y][x]];
+	}
+
+	public BoardSpace getBoardSpace(Point p) {
+		return getBoardSpace(p.x, p.y);
+	}
+
+	/**
+	 * @return the Zobrist hash of the position (the board and the player to move), the same as GoState.getZobristHash of the same state.
+	*/
+	public long getZobristHash() {
+		return boardHash ^ turnKey(turn);
+	}
+
+	/**
+	 * @return true if the position repeats a previous one (like after two passes), so the game has ended.
+	*/
+	public boolean isRepeated() {
+		return history.contains(getZobristHash());
+	}
+
+	public boolean isLegalMove(Point p) {
+		return 0 <= p.x && p.x < size && 0 <= p.y && p.y < size
+				&& EMPTY == rows[p.y][p.x]
+				&& null != capturedBy(p.index(size));
+	}
+
+	/**
+	 * @return the indices (y * size + x) of the legal points of the player to move.
+	*/
+	public BitSet legalMoves() {
+		BitSet legalMoves = new BitSet(size * size);
+		for(int i = 0; i < size * size; i++) {
+			if(EMPTY == get(i) && null != capturedBy(i)) {
+				legalMoves.set(i);
+			}
+		}
+		return legalMoves;
+	}
+
+	/**
+	 * Places a stone of the player to move, and removes the captured stones.
+	 * @param p the point of the move.
+	 * @return the position after the move (this position doesn't change).
+	*/
+	public Position play(Point p) {
+		if(!(0 <= p.x && p.x < size && 0 <= p.y && p.y < size) || EMPTY != rows[p.y][p.x]) {
+			throw new IllegalArgumentException("Illegal move: %s".formatted(p));
+		}
+		int i = p.index(size);
+		int[] captured = capturedBy(i);
+		if(null == captured) {
+			throw new IllegalArgumentException("Illegal move: %s".formatted(p));
+		}
+
+		byte[][] newRows = rows.clone(); // only the changed rows are copied
+		set(newRows, i, (byte) BoardSpace.fromStone(turn).ordinal());
+		long newHash = boardHash ^ Zobrist.key(zobristKeys, i, turn);
+		for(int j : captured) {
+			set(newRows, j, EMPTY);
+			newHash ^= Zobrist.key(zobristKeys, j, turn.opposite());
+		}
+		return Stone.BLACK == turn
+				? new Position(this, newRows, blackCaptured + captured.length, whiteCaptured, newHash)
+				: new Position(this, newRows, blackCaptured, whiteCaptured + captured.length, newHash);
+	}
+
+	/**
+	 * @return the position after a pass (it shares the whole board with this position).
+	*/
+	public Position pass() {
+		return new Position(this, rows, blackCaptured, whiteCaptured, boardHash);
+	}
+
+	/**
+	 * @param p the point of the move, or null for a pass.
+	 * @return the position after the move.
+	*/
+	public Position move(Point p) {
+		return null == p ? pass() : play(p);
+	}
+
+	/**
+	 * Writes a point into the new rows, copying its row first, if it's still shared with this position.
+	*/
+	private void set(byte[][] newRows, int i, byte boardSpace) {
+		int y = i / size;
+		if(rows[y] == newRows[y]) {
+			newRows[y] = rows[y].clone();
+		}
+		newRows[y][i % size] = boardSpace;
+	}
+
+	private byte get(int i) {
+		return rows[i / size][i % size];
+	}
+
+	/**
+	 * Checks a stone of the player to move on the empty point i, by flood filling the neighbor chains.
+	 * @param i index of the empty point.
+	 * @return the indices of the captured stones, or null if the move is illegal (suicidal, or repeats a previous position).
+	*/
+	private int[] capturedBy(int i) {
+		byte own = (byte) BoardSpace.fromStone(turn).ordinal();
+		byte opponent = (byte) BoardSpace.fromStone(turn.opposite()).ordinal();
+		BitSet visited = new BitSet(size * size);
+		int[] chain = new int[size * size];
+		int[] captured = new int[0];
+		long newHash = boardHash ^ Zobrist.key(zobristKeys, i, turn) ^ turnKey(turn.opposite());
+		for(int k = 0, count = neighbors.count(i); k < count; k++) {
+			int n = neighbors.neighbor(i, k);
+			if(opponent == get(n) && !visited.get(n)) {
+				int stones = chainWithoutLiberty(n, opponent, i, own, visited, chain);
+				if(0 < stones) {
+					captured = Arrays.copyOf(captured, captured.length + stones);
+					System.arraycopy(chain, 0, captured, captured.length - stones, stones);
+					for(int s = 0; s < stones; s++) {
+						newHash ^= Zobrist.key(zobristKeys, chain[s], turn.opposite());
+					}
+				}
+			}
+		}
+		if(0 == captured.length && 0 < chainWithoutLiberty(i, own, i, own, new BitSet(size * size), chain)) {
+			return null; // suicidal: the new stone's chain has no liberty, and it doesn't capture
+		}
+		return history.contains(newHash) ? null : captured;
+	}
+
+	/**
+	 * Collects a chain, as if the point "placed" had a stone of "placedStone".
+	 * @param start a stone of the chain.
+	 * @param stone the ordinal of the chain's BoardSpace.
+	 * @param visited marks the collected stones.
+	 * @param chain is filled with the stones.
+	 * @return the number of the chain's stones, or 0 if the chain has a liberty.
+	*/
+	private int chainWithoutLiberty(int start, byte stone, int placed, byte placedStone, BitSet visited, int[] chain) {
+		int stones = 0;
+		chain[stones++] = start;
+		visited.set(start);
+		for(int s = 0; s < stones; s++) {
+			int j = chain[s];
+			for(int k = 0, count = neighbors.count(j); k < count; k++) {
+				int n = neighbors.neighbor(j, k);
+				byte boardSpace = placed == n ? placedStone : get(n);
+				if(EMPTY == boardSpace) {
+					return 0;
+				}
+				if(stone == boardSpace && !visited.get(n)) {
+					visited.set(n);
+					chain[stones++] = n;
+				}
+			}
+		}
+		return stones;
+	}
+
+	private static long turnKey(Stone s) {
+		return Stone.WHITE == s ? Zobrist.WHITE_TO_MOVE : 0;
+	}
+
+	/**
+	 * @param parent a position.
+	 * @return the number of the rows shared with the parent (the same arrays).
+	*/
+	int sharedRows(Position parent) {
+		int shared = 0;
+		for(int y = 0; y < size; y++) {
+			if(rows[y] == parent.rows[y]) {
+				++shared;
+			}
+		}
+		return shared;
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if(this == o) {
+			return true;
+		}
+
+		if(null != o && getClass() == o.getClass()) {
+			Position otherPosition = (Position)o;
+			return this.boardHash == otherPosition.boardHash && // cheap check first, different hashes mean different boards
+					Arrays.deepEquals(this.rows, otherPosition.rows) && this.turn == otherPosition.turn;
+		}
+		return false;
+	}
+
+	@Override
+	public int hashCode() {
+		return Long.hashCode(getZobristHash());
+	}
+}
@@ -0,0 +1,162 @@
+package gogame;
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+@DisplayName("Position and VariationTree tests")
+public class PositionTest {
+	private static Point randomMove(SplittableRandom random, int size) {
+		return 0 == random.nextInt(10) ? null : Point.of(random.nextInt(size), random.nextInt(size));
+	}
+
+	@DisplayName("Testing, that the positions of random games are the same as the GoStates of the games.")
+	@ParameterizedTest
+	@ValueSource(ints = {9, 13, 19})
+	public void testSameAsGoState(int size) {
+		SplittableRandom random = new SplittableRandom(size);
+		GoState state = new GoState(size);
+		Position position = Position.empty(size);
+		for(int move = 0; move < 4 * size * size; move++) {
+			assertEquals(state.legalMoves(), position.legalMoves());
+			Point p = randomMove(random, size);
+			if(null != p && !state.isLegalMove(p)) {
+				Position current = position;
+				assertFalse(current.isLegalMove(p));
+				assertThrows(IllegalArgumentException.class, () -> current.play(p));
+				continue;
+			}
+			boolean ended = state.makeMove(p);
+			position = position.move(p);
+			assertEquals(ended, position.isRepeated());
+			assertEquals(state.getZobristHash(), position.getZobristHash());
+			assertEquals(state.getBlackCaptured(), position.getBlackCaptured());
+			assertEquals(state.getWhiteCaptured(), position.getWhiteCaptured());
+			assertEquals(state, position.toGoState());
+			if(ended) {
+				break;
+			}
+		}
+		assertEquals(state.getPrevStates(), position.toGoState().getPrevStates());
+		assertEquals(position, Position.of(state));
+	}
+
+	@DisplayName("Testing, that a move doesn't change the parent position, and shares its unchanged rows.")
+	@Test
+	public void testSharing() {
+		Position parent = Position.empty(9).play(Point.of(4, 4));
+		Position child = parent.play(Point.of(3, 4));
+		assertAll(
+			() -> assertEquals(BoardSpace.EMPTY, parent.getBoardSpace(3, 4)),
+			() -> assertEquals(BoardSpace.WHITE, child.getBoardSpace(3, 4)),
+			() -> assertEquals(8, child.sharedRows(parent)), // only the row of the move is copied
+			() -> assertEquals(9, parent.pass().sharedRows(parent)),
+			() -> assertEquals(1, parent.getHistorySize()),
+			() -> assertEquals(2, child.getHistorySize())
+		);
+	}
+
+	@DisplayName("Testing, that a Ko is detected, and that it's allowed again after other moves.")
+	@Test
+	public void testKo() {
+		Position position = Position.empty(9);
+		int[][] moves = { {1, 0}, {2, 0}, {0, 1}, {3, 1}, {1, 2}, {2, 2}, {2, 1}, {1, 1} }; // white's last move captures the black stone on (2, 1)
+		for(int[] move : moves) {
+			position = position.play(Point.of(move[0], move[1]));
+		}
+		Position ko = position;
+		Position retaken = ko.play(Point.of(8, 8)).play(Point.of(8, 7)).play(Point.of(2, 1)); // black retakes after a Ko threat
+		assertAll(
+			() -> assertEquals(1, ko.getWhiteCaptured()),
+			() -> assertFalse(ko.isLegalMove(Point.of(2, 1))),
+			() -> assertEquals(BoardSpace.EMPTY, retaken.getBoardSpace(1, 1)),
+			() -> assertEquals(1, retaken.getBlackCaptured()),
+			() -> assertTrue(ko.pass().pass().isRepeated())
+		);
+	}
+
+	@DisplayName("Testing, that every branch of a variation tree has only its own positions in its history.")
+	@Test
+	public void testVariationTree() {
+		int size = 9;
+		SplittableRandom random = new SplittableRandom(1);
+		VariationTree tree = new VariationTree(Position.empty(size));
+		List<VariationTree.Node> leaves = new ArrayList<>();
+		for(int branch = 0; branch < 200; branch++) {
+			VariationTree.Node node = tree.getRoot();
+			while(0 < node.getChildren().size() && 0 != random.nextInt(4)) { // follow an existing line for a while, then branch off
+				node = node.getChildren().get(random.nextInt(node.getChildren().size()));
+			}
+			for(int move = 0; move < 20 && !node.getPosition().isRepeated(); ) {
+				Point p = randomMove(random, size);
+				if(null == p || node.getPosition().isLegalMove(p)) {
+					node = node.play(p);
+					++move;
+				}
+			}
+			leaves.add(node);
+		}
+
+		for(VariationTree.Node leaf : leaves) {
+			Set<Long> branchHistory = new HashSet<>();
+			GoState replayed = new GoState(size);
+			for(VariationTree.Node node = leaf.getParent(); null != node; node = node.getParent()) {
+				branchHistory.add(node.getPosition().getZobristHash());
+			}
+			for(Point p : leaf.getMoves()) {
+				replayed.makeMove(p);
+			}
+			assertEquals(branchHistory, leaf.getPosition().toGoState().getPrevStates());
+			assertEquals(replayed, leaf.getPosition().toGoState());
+		}
+
+		VariationTree.Node first = tree.getRoot().getChildren().getFirst();
+		assertSame(first, tree.play(List.of(first.getMove()))); // an existing move is reused
+		int nodes = tree.getNodeCount();
+		assertTrue(tree.getRoot().remove(first));
+		assertTrue(tree.getNodeCount() < nodes);
+	}
+
+	@DisplayName("Testing, that the persistent set contains the added values, and the earlier versions don't change.")
+	@Test
+	public void testPersistentLongSet() {
+		SplittableRandom random = new SplittableRandom(2);
+		Set<Long> expected = new HashSet<>();
+		PersistentLongSet set = PersistentLongSet.EMPTY;
+		PersistentLongSet half = null;
+		Set<Long> halfExpected = null;
+		for(int k = 0; k < 5000; k++) {
+			long value = 0 == k % 3 ? random.nextLong(64) : random.nextLong(); // small values share the bits of many levels
+			expected.add(value);
+			set = set.add(value);
+			if(2500 == k) {
+				half = set;
+				halfExpected = new HashSet<>(expected);
+			}
+		}
+		assertEquals(expected.size(), set.size());
+		Set<Long> values = new HashSet<>();
+		set.forEach(values::add);
+		assertEquals(expected, values);
+		PersistentLongSet finalSet = set;
+		assertTrue(expected.stream().allMatch(finalSet::contains));
+		assertFalse(set.contains(64));
+		assertSame(set, set.add(expected.iterator().next()));
+		Set<Long> halfValues = new HashSet<>();
+		half.forEach(halfValues::add);
+		assertEquals(halfExpected, halfValues);
+	}
+}
@@ -0,0 +1,28 @@
+package gogame;
+
+/**
+ * The result of scoring a game.
+ * @param rule the rule the points were counted by.
+ * @param black the points of black.
+ * @param white the points of white (with komi).
+*/
+public record Score(ScoringRule rule, double black, double white) {
+	/**
+	 * @return black's points minus white's points.
+	*/
+	public double margin() {
+		return black - white;
+	}
+	
+	/**
+	 * @return the player with more points, or null if the game is a tie.
+	*/
+	public Stone winner() {
+		return black > white ? Stone.BLACK : (white > black ? Stone.WHITE : null);
+	}
+	
+	@Override
+	public String toString() {
+		return "Black: %.1f, White: %.1f".formatted(black, white);
+	}
+}
@@ -0,0 +1,173 @@
+package gogame;
+
+import java.util.Arrays;
+
+/**
+ * Scores boards by area (Chinese rules) or territory (Japanese rules).
+ * The boards are flat arrays of BoardSpace ordinals (the point (x, y) is at index y * size + x), the empty regions are found by flood fill.
+ * The buffers are allocated once, so a Scorer can score any number of boards without allocating, but it must not be shared between threads.
+*/
+public final class Scorer {
+	private static final byte EMPTY = (byte) BoardSpace.EMPTY.ordinal();
+	private static final byte BLACK = (byte) BoardSpace.BLACK.ordinal();
+	private static final byte WHITE = (byte) BoardSpace.WHITE.ordinal();
+	private static final int BORDERS_BLACK = 1 << BLACK;
+	private static final int BORDERS_WHITE = 1 << WHITE;
+	
+	private final int size;
+	private final NeighborTable neighbors;
+	private final byte[] work; // the scored board, without the dead stones
+	private final int[] region; // the points of the last filled region (also the queue of the flood fill)
+	private final int[] marks; // a point is marked if its value equals the current stamp
+	private int stamp;
+	private int borders; // the colors bordering the last filled region
+	private int blackStones; // the results of the last count
+	private int whiteStones;
+	private int blackTerritory;
+	private int whiteTerritory;
+	
+	public Scorer(int size) {
+		this.size = size;
+		neighbors = NeighborTable.of(size);
+		work = new byte[size * size];
+		region = new int[size * size];
+		marks = new int[size * size];
+	}
+	
+	public int getSize() { return size; }
+	
+	/**
+	 * Counts the area of both players on a finished board (every stone is considered alive).
+	 * This is the cheap way to score playouts: the board isn't copied, and nothing is allocated.
+	 * @param board BoardSpace ordinals of the points.
+	 * @return black's area minus white's area (without komi).
+	*/
+	public int areaDifference(byte[] board) {
+		count(board);
+		return blackStones + blackTerritory - whiteStones - whiteTerritory;
+	}
+	
+	/**
+	 * Finds the owner of every point: the color of the stone on it, or the color of the stones bordering its empty region, if only one color borders it.
+	 * @param board BoardSpace ordinals of the points.
+	 * @param owners receives the owners' BoardSpace ordinals (EMPTY for the neutral points).
+	*/
+	public void owners(byte[] board, byte[] owners) {
+		int stamp = newStamp();
+		for(int i = 0; i < board.length; i++) {
+			if(EMPTY != board[i]) {
+				owners[i] = board[i];
+			} else if(stamp != marks[i]) {
+				int regionSize = fillRegion(board, i, stamp);
+				byte owner = BORDERS_BLACK == borders ? BLACK : (BORDERS_WHITE == borders ? WHITE : EMPTY);
+				for(int k = 0; k < regionSize; k++) {
+					owners[region[k]] = owner;
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Scores a finished game, every stone on the board is considered alive.
+	 * @param state the finished game.
+	 * @param rule the scoring rule.
+	 * @param komi the points given to white.
+	 * @return the score.
+	*/
+	public Score score(GoState state, ScoringRule rule, double komi) {
+		return score(state, rule, komi, null);
+	}
+	
+	/**
+	 * Scores a finished game. The dead stones are taken off the board before counting, and they count as captured stones.
+	 * @param state the finished game.
+	 * @param rule the scoring rule.
+	 * @param komi the points given to white.
+	 * @param dead the dead stones (by the points' index), or null if every stone is alive.
+	 * @return the score.
+	*/
+	public Score score(GoState state, ScoringRule rule, double komi, boolean[] dead) {
+		if(size != state.getSize()) {
+			throw new IllegalArgumentException("Board size mismatch: %d != %d".formatted(state.getSize(), size));
+		}
+		int deadBlack = 0;
+		int deadWhite = 0;
+		for(int i = 0; i < work.length; i++) {
+			work[i] = (byte) state.getBoardSpace(i).ordinal();
+			if(null != dead && dead[i] && EMPTY != work[i]) {
+				if(BLACK == work[i]) {
+					++deadBlack;
+				} else {
+					++deadWhite;
+				}
+				work[i] = EMPTY;
+			}
+		}
+		count(work);
+		
+		return switch(rule) {
+			case AREA -> new Score(rule, blackStones + blackTerritory, whiteStones + whiteTerritory + komi);
+			case TERRITORY -> new Score(rule,
+					blackTerritory + state.getBlackCaptured() + deadWhite, // black captured white stones
+					whiteTerritory + state.getWhiteCaptured() + deadBlack + komi);
+		};
+	}
+	
+	/**
+	 * Counts the stones and the territories of both players.
+	*/
+	private void count(byte[] board) {
+		blackStones = 0;
+		whiteStones = 0;
+		blackTerritory = 0;
+		whiteTerritory = 0;
+		int stamp = newStamp();
+		for(int i = 0; i < board.length; i++) {
+			if(BLACK == board[i]) {
+				++blackStones;
+			} else if(WHITE == board[i]) {
+				++whiteStones;
+			} else if(stamp != marks[i]) {
+				int regionSize = fillRegion(board, i, stamp);
+				if(BORDERS_BLACK == borders) {
+					blackTerritory += regionSize;
+				} else if(BORDERS_WHITE == borders) {
+					whiteTerritory += regionSize;
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Collects the empty region of a point into "region" (breadth first), and marks its points.
+	 * @return the size of the region, the colors bordering it are in "borders".
+	*/
+	private int fillRegion(byte[] board, int start, int stamp) {
+		borders = 0;
+		int head = 0;
+		int tail = 0;
+		region[tail++] = start;
+		marks[start] = stamp;
+		while(head < tail) {
+			int i = region[head++];
+			for(int k = 0, count = neighbors.count(i); k < count; k++) {
+				int n = neighbors.neighbor(i, k);
+				if(EMPTY != board[n]) {
+					borders |= 1 << board[n];
+				} else if(stamp != marks[n]) {
+					marks[n] = stamp;
+					region[tail++] = n;
+				}
+			}
+		}
+		return tail;
+	}
+	
+	private int newStamp() {
+		if(0 == ++stamp) { // the stamp overflowed, old marks could be mistaken for new ones
+			Arrays.fill(marks, 0);
+			stamp = 1;
+		}
+		return stamp;
+	}
+}
@@ -0,0 +1,122 @@
+package gogame;
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+@DisplayName("Scorer tests")
+public class ScorerTest {
+	private static final String WALLS = """
+		_,_,_,_,B,W,_,_,_
+		_,_,_,_,B,W,_,_,_
+		_,_,_,_,B,W,_,_,_
+		_,_,_,_,B,W,_,_,_
+		_,_,_,_,B,W,_,_,_
+		_,_,_,_,B,W,_,_,_
+		_,_,_,_,B,W,_,_,_
+		_,_,_,_,B,W,_,_,_
+		_,_,_,_,B,W,_,_,_
+		""";
+	
+	static Stream<Arguments> provideScoredGoStates() {
+	    return Stream.of(
+	        Arguments.of(WALLS, ScoringRule.AREA, 6.5, 45, 42.5),
+	        Arguments.of(WALLS, ScoringRule.TERRITORY, 6.5, 36, 33.5),
+	        Arguments.of("""
+	        	_,_,_,B,_,W,_,_,_
+	        	_,_,_,B,_,W,_,_,_
+	        	_,_,_,B,_,W,_,_,_
+	        	_,_,_,B,_,W,_,_,_
+	        	_,_,_,B,_,W,_,_,_
+	        	_,_,_,B,_,W,_,_,_
+	        	_,_,_,B,_,W,_,_,_
+	        	_,_,_,B,_,W,_,_,_
+	        	_,_,_,B,_,W,_,_,_
+	        	""", ScoringRule.AREA, 0, 36, 36), // the middle column touches both colors, so it's neutral
+	        Arguments.of("""
+	        	_,_,_,_,_,_,_,_,_
+	        	_,_,_,_,_,_,_,_,_
+	        	_,_,_,_,_,_,_,_,_
+	        	_,_,_,_,_,_,_,_,_
+	        	_,_,_,_,_,_,_,_,_
+	        	_,_,_,_,_,_,_,_,_
+	        	_,_,_,_,_,_,_,_,_
+	        	_,_,_,_,_,_,_,_,_
+	        	_,_,_,_,_,_,_,_,_
+	        	""", ScoringRule.AREA, 7.5, 0, 7.5) // the empty board belongs to nobody
+	    );
+	}
+	
+	@DisplayName("Testing, that \"score\" method counts the area or the territory of the players, with komi.")
+	@ParameterizedTest(name = "Rule: {1}; Komi: {2}")
+	@MethodSource("provideScoredGoStates")
+	public void testScore(String board, ScoringRule rule, double komi, double black, double white) {
+		GoState state = GoStateParser.parseGoState(board);
+		assertEquals(new Score(rule, black, white), new Scorer(9).score(state, rule, komi));
+	}
+	
+	@DisplayName("Testing, that the captured stones count only for territory scoring.")
+	@Test
+	public void testScoreWithCaptures() {
+		GoState state = GoStateParser.parseGoState(WALLS.replaceFirst("_,_", "W,B"));
+		state.turn = Stone.BLACK;
+		state.makeMove(new Point(0, 1)); // captures the white stone in the corner
+		Scorer scorer = new Scorer(9);
+		
+		assertAll(
+				() -> assertEquals(new Score(ScoringRule.AREA, 45, 36), scorer.score(state, ScoringRule.AREA, 0)),
+				() -> assertEquals(new Score(ScoringRule.TERRITORY, 35, 27), scorer.score(state, ScoringRule.TERRITORY, 0))
+		);
+	}
+	
+	@DisplayName("Testing, that the dead stones are taken off the board, and they count as captured stones.")
+	@Test
+	public void testScoreWithDeadStones() {
+		GoState state = GoStateParser.parseGoState(WALLS.replaceFirst("_,_,_,_,B", "_,W,_,_,B"));
+		boolean[] dead = new boolean[81];
+		dead[1] = true;
+		Scorer scorer = new Scorer(9);
+		
+		assertAll(
+				() -> assertEquals(new Score(ScoringRule.AREA, 45, 36), scorer.score(state, ScoringRule.AREA, 0, dead)),
+				() -> assertEquals(new Score(ScoringRule.TERRITORY, 37, 27), scorer.score(state, ScoringRule.TERRITORY, 0, dead)),
+				() -> assertEquals(new Score(ScoringRule.AREA, 9, 37), scorer.score(state, ScoringRule.AREA, 0)) // the white stone spoils black's territory
+		);
+	}
+	
+	@DisplayName("Testing, that \"areaDifference\" and \"owners\" methods agree with the area score.")
+	@Test
+	public void testAreaDifferenceAndOwners() {
+		GoState state = GoStateParser.parseGoState(WALLS);
+		byte[] board = new byte[81];
+		for(int i = 0; i < board.length; i++) {
+			board[i] = (byte) state.getBoardSpace(i).ordinal();
+		}
+		byte[] owners = new byte[81];
+		Scorer scorer = new Scorer(9);
+		scorer.owners(board, owners);
+		
+		assertAll(
+				() -> assertEquals(9, scorer.areaDifference(board)),
+				() -> assertEquals(BoardSpace.BLACK.ordinal(), owners[0]),
+				() -> assertEquals(BoardSpace.WHITE.ordinal(), owners[80])
+		);
+	}
+	
+	@DisplayName("Testing, that a tie has no winner, and a state of an other board size is rejected.")
+	@Test
+	public void testTieAndSizeMismatch() {
+		assertAll(
+				() -> assertNull(new Score(ScoringRule.AREA, 40, 40).winner()),
+				() -> assertThrows(IllegalArgumentException.class, () -> new Scorer(9).score(new GoState(13), ScoringRule.AREA, 0))
+		);
+	}
+}
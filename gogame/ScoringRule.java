@@ -0,0 +1,9 @@
+package gogame;
+
+/**
+ * The ways a finished game can be scored.
+*/
+public enum ScoringRule {
+	AREA, // Chinese rules: the player's stones on the board, plus the empty points surrounded only by the player's stones
+	TERRITORY; // Japanese rules: the empty points surrounded only by the player's stones, plus the captured stones
+}
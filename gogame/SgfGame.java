@@ -0,0 +1,111 @@
+package gogame;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The main line of a game in SGF (Smart Game Format): the starting position and the moves.
+ * @param size of the board.
+ * @param properties the properties of the root node (for example PB, PW, KM, RE), by their identifiers.
+ * @param black the black stones of the starting position (for example handicap stones).
+ * @param white the white stones of the starting position.
+ * @param toPlay the player to move in the starting position.
+ * @param moves the moves of the game.
+*/
+public record SgfGame(int size, Map<String, String> properties, List<Point> black, List<Point> white, Stone toPlay, List<Move> moves) {
+	/**
+	 * A move of an SGF game (the players don't have to alternate).
+	 * @param player who made the move.
+	 * @param point of the placed stone, or null for a pass.
+	*/
+	public record Move(Stone player, Point point) {}
+	
+	public SgfGame {
+		if(size < 1 || 52 < size) { // the points are written with the letters a-z, A-Z
+			throw new IllegalArgumentException("Invalid board size: %d".formatted(size));
+		}
+		properties = Collections.unmodifiableMap(new LinkedHashMap<>(properties));
+		black = List.copyOf(black);
+		white = List.copyOf(white);
+		moves = List.copyOf(moves);
+	}
+	
+	/**
+	 * @param id the identifier of a root property.
+	 * @return the property's value, or null if the game doesn't have the property.
+	*/
+	public String getProperty(String id) {
+		return properties.get(id);
+	}
+	
+	/**
+	 * The result of replaying the game on a GoState.
+	 * @param state the position after the last legal move.
+	 * @param played the number of moves played (until the first illegal move).
+	 * @param illegal the first illegal move, or null if every move is legal.
+	*/
+	record Replay(GoState state, int played, Move illegal) {}
+	
+	/**
+	 * Sets up the starting position on a new GoState, and plays the moves, until the first illegal one (by the rules of GoState).
+	 * Every move is played by its own player, so the players don't have to alternate.
+	 * @return the replayed position, and the illegal move (the state is left before it, so the caller can examine why it's illegal).
+	*/
+	Replay replay() {
+		GoState state = new GoState(size);
+		black.forEach(p -> state.setBoardSpace(p.x, p.y, BoardSpace.BLACK));
+		white.forEach(p -> state.setBoardSpace(p.x, p.y, BoardSpace.WHITE));
+		state.turn = toPlay;
+		for(int k = 0; k < moves.size(); k++) {
+			Move move = moves.get(k);
+			state.turn = move.player();
+			if(null != move.point() && !state.isLegalMove(move.point())) {
+				return new Replay(state, k, move);
+			}
+			state.makeMove(move.point());
+		}
+		return new Replay(state, moves.size(), null);
+	}
+	
+	/**
+	 * Plays the game on a GoState.
+	 * @return the position after the last move.
+	 * @throws IllegalArgumentException if a move is illegal by the rules of GoState.
+	*/
+	public GoState toGoState() {
+		Replay replay = replay();
+		if(null != replay.illegal()) {
+			throw new IllegalArgumentException("Illegal move %d: %s (%s)".formatted(replay.played() + 1, replay.illegal().player(), replay.illegal().point()));
+		}
+		return replay.state();
+	}
+	
+	/**
+	 * Creates the SGF game of a GoState: its starting position, and the moves played on it.
+	 * @param state the game.
+	 * @return the SGF game.
+	*/
+	public static SgfGame of(GoState state) {
+		GoState start = new GoState(state);
+		while(start.unmakeMove()); // take back every move, to get the starting position
+		List<Point> black = new ArrayList<>();
+		List<Point> white = new ArrayList<>();
+		for(int i = 0; i < state.getSize() * state.getSize(); i++) {
+			BoardSpace boardSpace = start.getBoardSpace(i);
+			if(BoardSpace.BLACK == boardSpace) {
+				black.add(Point.of(i % state.getSize(), i / state.getSize()));
+			} else if(BoardSpace.WHITE == boardSpace) {
+				white.add(Point.of(i % state.getSize(), i / state.getSize()));
+			}
+		}
+		List<Move> moves = new ArrayList<>();
+		for(int r = 0; r < state.getMoveCount(); r++) {
+			int move = state.getMove(r);
+			moves.add(new Move(state.getMovePlayer(r), UndoStack.PASS == move ? null : Point.of(move % state.getSize(), move / state.getSize())));
+		}
+		return new SgfGame(state.getSize(), Map.of(), black, white, start.turn, moves);
+	}
+}
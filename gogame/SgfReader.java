@@ -0,0 +1,428 @@
+package gogame;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Reads the games of an SGF (Smart Game Format) collection one by one, so collections of any size can be processed:
+ * only the game being read is kept in memory, and only the properties needed to replay the main line are decoded
+ * (the properties of the root node, the moves, and the starting position). The variations are skipped.
+ * A game with an error is reported by an IllegalArgumentException. After an unsupported property value the reading goes on with the next game,
+ * after a syntax error the rest of the broken game tree (with its variations) is skipped, and the reading goes on with the next game.
+*/
+public final class SgfReader implements Iterator<SgfGame>, Closeable {
+	private static final int BUFFER_SIZE = 1 << 16;
+	private static final int DEFAULT_SIZE = 19;
+	private static final int END = -1;
+	
+	private final Reader in;
+	private final char[] buffer = new char[BUFFER_SIZE];
+	private int position;
+	private int limit;
+	private long offset; // the number of characters before the buffer
+	private final StringBuilder id = new StringBuilder();
+	private final StringBuilder value = new StringBuilder();
+	private SgfGame next;
+	private int gameCount;
+	
+	// the game being read
+	private int size;
+	private Map<String, String> properties;
+	private List<Point> black;
+	private List<Point> white;
+	private List<Point> removed;
+	private Stone toPlay;
+	private List<SgfGame.Move> moves;
+	private String error; // the first error of the game, that doesn't stop the parsing
+	
+	public SgfReader(Reader in) {
+		this.in = in;
+	}
+	
+	/**
+	 * Opens a collection file (UTF-8, the invalid characters are replaced, so every file can be read).
+	 * @param path of the file.
+	 * @return the reader, it has to be closed.
+	*/
+	public static SgfReader open(Path path) throws IOException {
+		return new SgfReader(new InputStreamReader(Files.newInputStream(path), StandardCharsets.UTF_8));
+	}
+	
+	/**
+	 * Parses the games of an SGF text.
+	 * @param sgf the text of a collection.
+	 * @return the games of the collection.
+	*/
+	public static List<SgfGame> parse(String sgf) {
+		try(SgfReader reader = new SgfReader(new StringReader(sgf))) {
+			List<SgfGame> games = new ArrayList<>();
+			reader.forEachRemaining(games::add);
+			return games;
+		}
+	}
+	
+	@Override
+	public boolean hasNext() {
+		if(null == next) {
+			try {
+				next = readGame();
+			} catch(IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}
+		return null != next;
+	}
+	
+	@Override
+	public SgfGame next() {
+		if(!hasNext()) {
+			throw new NoSuchElementException();
+		}
+		SgfGame game = next;
+		next = null;
+		return game;
+	}
+	
+	/**
+	 * @return the remaining games as a sequential stream, closing the stream closes the reader.
+	*/
+	public Stream<SgfGame> stream() {
+		return StreamSupport.stream(Spliterators.spliteratorUnknownSize(this, Spliterator.ORDERED | Spliterator.NONNULL), false)
+				.onClose(this::close);
+	}
+	
+	/**
+	 * @return the number of games read (including the games with errors).
+	*/
+	public int getGameCount() { return gameCount; }
+	
+	@Override
+	public void close() {
+		try {
+			in.close();
+		} catch(IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+	
+	/**
+	 * Reads the next game tree of the collection.
+	 * @return the game, or null at the end of the collection.
+	*/
+	private SgfGame readGame() throws IOException {
+		int c;
+		while('(' != (c = read())) { // the text between the game trees is ignored
+			if(END == c) {
+				return null;
+			}
+		}
+		++gameCount;
+		size = DEFAULT_SIZE;
+		properties = new LinkedHashMap<>();
+		black = new ArrayList<>();
+		white = new ArrayList<>();
+		removed = new ArrayList<>();
+		toPlay = null;
+		moves = new ArrayList<>();
+		error = null;
+		
+		int depth = 1;
+		int nodes = 0;
+		boolean mainLineDone = false; // the main line ends at the first closed game tree, the trees after it are variations
+		try {
+			while(0 < depth) {
+				c = readNonWhitespace();
+				switch(c) {
+					case ';' -> {
+						if(mainLineDone) {
+							throw invalid("Node after a variation");
+						}
+						readNode(0 == nodes++);
+					}
+					case '(' -> {
+						if(mainLineDone) {
+							skipTree(1);
+						} else {
+							++depth;
+						}
+					}
+					case ')' -> {
+						--depth;
+						mainLineDone = true;
+					}
+					case END -> throw invalid("Unexpected end of the collection");
+					default -> throw invalid("Unexpected character: %c".formatted((char) c));
+				}
+			}
+		} catch(IllegalArgumentException e) { // a syntax error: the rest of the game tree is skipped, so its variations aren't read as games
+			try {
+				skipTree(depth);
+			} catch(IllegalArgumentException end) { // the collection ended inside the game tree
+			}
+			throw e;
+		}
+		if(null != error) {
+			throw new IllegalArgumentException("Game %d: %s".formatted(gameCount, error));
+		}
+		return buildGame();
+	}
+	
+	private SgfGame buildGame() {
+		List<SgfGame.Move> mainLine = moves.stream()
+				.map(move -> null != move.point() && isPass(move.point()) ? new SgfGame.Move(move.player(), null) : move)
+				.toList();
+		Stream.of(black.stream(), white.stream(), mainLine.stream().map(SgfGame.Move::point))
+			.flatMap(points -> points)
+			.filter(p -> null != p && (size <= p.x || size <= p.y))
+			.findFirst()
+			.ifPresent(p -> {
+				throw new IllegalArgumentException("Game %d: point outside of the board: %s".formatted(gameCount, p));
+			});
+		black.removeAll(removed);
+		white.removeAll(removed);
+		
+		Stone first = null != toPlay ? toPlay
+				: !mainLine.isEmpty() ? mainLine.get(0).player()
+				: !black.isEmpty() && white.isEmpty() ? Stone.WHITE // white moves first after the handicap stones
+				: Stone.BLACK;
+		return new SgfGame(size, properties, black, white, first, mainLine);
+	}
+	
+	/**
+	 * "tt" is a pass on the boards up to 19x19 (in the older versions of SGF).
+	*/
+	private boolean isPass(Point p) {
+		return size <= 19 && 19 == p.x && 19 == p.y;
+	}
+	
+	private void readNode(boolean root) throws IOException {
+		while(true) {
+			int c = readNonWhitespace();
+			if(!Character.isLetter(c)) {
+				unread();
+				return;
+			}
+			id.setLength(0);
+			for(; Character.isLetter(c); c = read()) {
+				if(Character.isUpperCase(c)) { // the lowercase letters of the older versions (like "AddBlack") are ignored
+					id.append((char) c);
+				}
+			}
+			unread();
+			boolean decoded = root || isMainLineProperty(id);
+			String propertyId = decoded ? propertyId(id) : null;
+			for(int values = 0; '[' == readNonWhitespace(); values++) {
+				readValue(decoded);
+				if(decoded) {
+					property(propertyId, value, root, values);
+				}
+			}
+			unread();
+		}
+	}
+	
+	private static boolean isMainLineProperty(CharSequence id) {
+		if(1 == id.length()) {
+			return 'B' == id.charAt(0) || 'W' == id.charAt(0);
+		}
+		return 2 == id.length() && ('A' == id.charAt(0) ? 'B' == id.charAt(1) || 'W' == id.charAt(1) || 'E' == id.charAt(1)
+				: 'P' == id.charAt(0) && 'L' == id.charAt(1));
+	}
+	
+	/**
+	 * @return the identifier as a String, the identifiers of the moves are not allocated again for every move.
+	*/
+	private static String propertyId(CharSequence id) {
+		if(1 == id.length() && 'B' == id.charAt(0)) {
+			return "B";
+		}
+		if(1 == id.length() && 'W' == id.charAt(0)) {
+			return "W";
+		}
+		return id.toString();
+	}
+	
+	/**
+	 * Processes a value of a property.
+	*/
+	private void property(String id, CharSequence v, boolean root, int index) {
+		switch(id) {
+			case "B", "W" -> moves.add(new SgfGame.Move("B".equals(id) ? Stone.BLACK : Stone.WHITE, v.isEmpty() ? null : point(v))); // the moves are decoded without creating Strings
+			case "AB", "AW", "AE" -> {
+				if(!root) {
+					error = "Setup properties after the root node are not supported";
+					return;
+				}
+				List<Point> points = "AB".equals(id) ? black : ("AW".equals(id) ? white : removed);
+				addPoints(points, v);
+			}
+			case "PL" -> toPlay = !v.isEmpty() && ('W' == v.charAt(0) || '2' == v.charAt(0)) ? Stone.WHITE : Stone.BLACK;
+			case "SZ" -> size = boardSize(v.toString());
+			case "GM" -> {
+				if(!"1".equals(v.toString().strip())) {
+					error = "Not a game of Go: GM[%s]".formatted(v);
+				}
+			}
+			default -> {}
+		}
+		if(root && 0 == index) {
+			properties.putIfAbsent(id, v.toString());
+		}
+	}
+	
+	private int boardSize(String v) {
+		String[] sides = v.strip().split(":");
+		try {
+			int width = Integer.parseInt(sides[0].strip());
+			if(2 == sides.length && width != Integer.parseInt(sides[1].strip())) {
+				error = "Rectangular boards are not supported: SZ[%s]".formatted(v);
+			}
+			return width;
+		} catch(NumberFormatException e) {
+			error = "Invalid board size: SZ[%s]".formatted(v);
+			return size;
+		}
+	}
+	
+	/**
+	 * Adds a point, or a compressed rectangle of points ("aa:cc").
+	*/
+	private void addPoints(List<Point> points, CharSequence v) {
+		int colon = v.toString().indexOf(':');
+		if(colon < 0) {
+			Point p = point(v);
+			if(null != p) {
+				points.add(p);
+			}
+			return;
+		}
+		Point from = point(v.subSequence(0, colon));
+		Point to = point(v.subSequence(colon + 1, v.length()));
+		if(null != from && null != to) {
+			for(int y = Math.min(from.y, to.y); y <= Math.max(from.y, to.y); y++) {
+				for(int x = Math.min(from.x, to.x); x <= Math.max(from.x, to.x); x++) {
+					points.add(Point.of(x, y));
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Decodes a point ("ab": x = 0, y = 1; the coordinates are written with a-z, then A-Z).
+	 * @return the point, or null (and the error is noted) if the value isn't a point.
+	*/
+	private Point point(CharSequence v) {
+		if(2 != v.length() || coordinate(v.charAt(0)) < 0 || coordinate(v.charAt(1)) < 0) {
+			error = "Invalid point: [%s]".formatted(v);
+			return null;
+		}
+		return Point.of(coordinate(v.charAt(0)), coordinate(v.charAt(1)));
+	}
+	
+	private static int coordinate(char c) {
+		return 'a' <= c && c <= 'z' ? c - 'a' : ('A' <= c && c <= 'Z' ? c - 'A' + 26 : -1);
+	}
+	
+	/**
+	 * Reads a property value after its "[", into "value" if it's decoded.
+	*/
+	private void readValue(boolean decoded) throws IOException {
+		value.setLength(0);
+		while(true) {
+			int c = read();
+			switch(c) {
+				case ']' -> {
+					return;
+				}
+				case '\\' -> {
+					c = read();
+					if(END == c) {
+						throw invalid("Unexpected end in a property value");
+					}
+					if('\n' == c || '\r' == c) { // soft line break
+						skipLineBreak(c);
+						continue;
+					}
+				}
+				case END -> throw invalid("Unexpected end in a property value");
+				default -> {}
+			}
+			if(decoded) {
+				value.append((char) c);
+			}
+		}
+	}
+	
+	private void skipLineBreak(int c) throws IOException {
+		int following = read();
+		if(END != following && !(('\n' == c && '\r' == following) || ('\r' == c && '\n' == following))) {
+			unread();
+		}
+	}
+	
+	/**
+	 * Skips the rest of a game tree, with its nodes and variations.
+	 * @param depth the number of the open trees ("(" without its ")"), 1 right after the tree's "(".
+	*/
+	private void skipTree(int depth) throws IOException {
+		while(0 < depth) {
+			switch(read()) {
+				case '(' -> ++depth;
+				case ')' -> --depth;
+				case '[' -> readValue(false);
+				case END -> throw invalid("Unexpected end of the collection");
+				default -> {}
+			}
+		}
+	}
+	
+	private int readNonWhitespace() throws IOException {
+		int c;
+		do {
+			c = read();
+		} while(END != c && Character.isWhitespace(c));
+		return c;
+	}
+	
+	private int read() throws IOException {
+		if(position == limit) {
+			offset += limit;
+			position = 0;
+			limit = Math.max(0, in.read(buffer));
+			if(0 == limit) {
+				return END;
+			}
+		}
+		return buffer[position++];
+	}
+	
+	/**
+	 * Steps back one character (only after a read, that didn't reach the end).
+	*/
+	private void unread() {
+		if(0 < position) {
+			--position;
+		}
+	}
+	
+	private IllegalArgumentException invalid(String message) {
+		return new IllegalArgumentException("Game %d: invalid SGF at character %d: %s".formatted(gameCount, offset + position, message));
+	}
+}
@@ -0,0 +1,113 @@
+package gogame;
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.StringReader;
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("SGF tests")
+public class SgfTest {
+	@DisplayName("Testing, that the reader follows the main line, and reads the root properties, the setup stones and the passes.")
+	@Test
+	public void testReadMainLine() {
+		List<SgfGame> games = SgfReader.parse("""
+			(;GM[1]FF[4]SZ[9]KM[6.5]PB[Black \\] player]HA[2]AB[cc][gg]
+			 ;W[ee]C[a comment (with parentheses) \\] and an escaped bracket]
+			 (;B[ec];W[tt]
+			  (;B[ge])
+			  (;B[ce]))
+			 (;B[ce];W[ec]))
+			(;GM[1]SZ[19];B[pd];W[dp])
+			""");
+		SgfGame game = games.get(0);
+		
+		assertAll(
+			() -> assertEquals(2, games.size()),
+			() -> assertEquals(9, game.size()),
+			() -> assertEquals("6.5", game.getProperty("KM")),
+			() -> assertEquals("Black ] player", game.getProperty("PB")),
+			() -> assertEquals(List.of(Point.of(2, 2), Point.of(6, 6)), game.black()),
+			() -> assertEquals(Stone.WHITE, game.toPlay()),
+			() -> assertEquals(List.of(
+					new SgfGame.Move(Stone.WHITE, Point.of(4, 4)),
+					new SgfGame.Move(Stone.BLACK, Point.of(4, 2)),
+					new SgfGame.Move(Stone.WHITE, null),
+					new SgfGame.Move(Stone.BLACK, Point.of(6, 4))), game.moves()),
+			() -> assertEquals(2, games.get(1).moves().size())
+		);
+	}
+	
+	@DisplayName("Testing, that a game written to SGF is read back, and replayed to the same GoState.")
+	@Test
+	public void testWriteReadGoState() {
+		GoState originalState = GoStateParser.parseGoState("""
+			_,W,_,_,_,_,_,_,_
+			W,_,_,_,_,_,_,_,_
+			_,_,B,_,_,_,_,_,_
+			_,_,_,_,_,_,_,_,_
+			_,_,_,_,_,_,_,_,_
+			_,_,_,_,_,_,_,_,_
+			_,_,_,_,_,_,_,_,_
+			_,_,_,_,_,_,_,_,_
+			_,_,_,_,_,_,_,_,_
+			""");
+		originalState.makeMove(new Point(0, 0));
+		originalState.makeMove(new Point(4, 4));
+		originalState.makeMove(null);
+		originalState.makeMove(new Point(3, 3));
+		
+		String sgf = SgfWriter.toString(SgfGame.of(originalState));
+		GoState inputState = SgfReader.parse(sgf).get(0).toGoState();
+		
+		assertAll(
+			() -> assertEquals(originalState, inputState),
+			() -> assertEquals(originalState.getMoveCount(), inputState.getMoveCount()),
+			() -> assertEquals(originalState.getPrevStates(), inputState.getPrevStates())
+		);
+	}
+	
+	@DisplayName("Testing, that a game with an error is reported, and the reading goes on with the next game.")
+	@Test
+	public void testErrorRecovery() {
+		try(SgfReader reader = new SgfReader(new StringReader("(;GM[3];B[aa](;W[bb]))(;GM[1]SZ[9];B[aa])(;SZ[9];B[zz])"))) {
+			assertThrows(IllegalArgumentException.class, reader::next); // not a game of Go
+			assertEquals(1, reader.next().moves().size());
+			assertThrows(IllegalArgumentException.class, reader::next); // outside of the board
+			assertFalse(reader.hasNext());
+			assertEquals(3, reader.getGameCount());
+		}
+	}
+	
+	@DisplayName("Testing, that the variations of a game with a syntax error are skipped with the game, and aren't read as games.")
+	@Test
+	public void testSyntaxErrorRecovery() {
+		try(SgfReader reader = new SgfReader(new StringReader("(;SZ[9];B[aa]%;W[bb](;B[cc];C[)(])(;B[ee]))(;SZ[9];B[ff])"))) {
+			assertThrows(IllegalArgumentException.class, reader::next); // unexpected character
+			assertEquals(List.of(new SgfGame.Move(Stone.BLACK, Point.of(5, 5))), reader.next().moves());
+			assertFalse(reader.hasNext());
+			assertEquals(2, reader.getGameCount());
+		}
+		try(SgfReader reader = new SgfReader(new StringReader("(;SZ[9];B[aa](;W[bb]"))) { // the collection ends inside the game
+			IllegalArgumentException e = assertThrows(IllegalArgumentException.class, reader::next);
+			assertTrue(e.getMessage().contains("Unexpected end"));
+			assertFalse(reader.hasNext());
+		}
+	}
+	
+	@DisplayName("Testing, that replaying an illegal move is rejected.")
+	@Test
+	public void testIllegalMove() {
+		SgfGame game = SgfReader.parse("(;SZ[9];B[aa];W[aa])").get(0);
+		IllegalArgumentException e = assertThrows(IllegalArgumentException.class, game::toGoState);
+		assertAll(
+			() -> assertTrue(e.getMessage().startsWith("Illegal move 2")),
+			() -> assertEquals(Point.of(0, 0), SgfReader.parse("(;SZ[9]B[aa])").get(0).moves().get(0).point()) // a move in the root node counts too
+		);
+	}
+}
@@ -0,0 +1,79 @@
+package gogame;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Writes games in SGF (Smart Game Format, FF[4]).
+*/
+public final class SgfWriter {
+	private static final Set<String> WRITTEN_PROPERTIES = Set.of("GM", "FF", "SZ", "AB", "AW", "AE", "PL", "B", "W"); // written from the game's fields
+	
+	private SgfWriter() {}
+	
+	/**
+	 * Writes a game tree.
+	 * @param game to write.
+	 * @param out the output, it's not closed.
+	*/
+	public static void write(SgfGame game, Writer out) throws IOException {
+		out.write("(;GM[1]FF[4]SZ[%d]".formatted(game.size()));
+		for(var property : game.properties().entrySet()) {
+			if(!WRITTEN_PROPERTIES.contains(property.getKey())) {
+				out.write("%s[%s]".formatted(property.getKey(), escape(property.getValue())));
+			}
+		}
+		writePoints("AB", game.black(), out);
+		writePoints("AW", game.white(), out);
+		Stone implied = !game.moves().isEmpty() ? game.moves().get(0).player() // the player to move, that the readers assume without PL
+				: !game.black().isEmpty() && game.white().isEmpty() ? Stone.WHITE
+				: Stone.BLACK;
+		if(game.toPlay() != implied) {
+			out.write("PL[%s]".formatted(Stone.BLACK == game.toPlay() ? "B" : "W"));
+		}
+		for(SgfGame.Move move : game.moves()) {
+			out.write(";%s[%s]".formatted(Stone.BLACK == move.player() ? "B" : "W", null == move.point() ? "" : point(move.point())));
+		}
+		out.write(")\n");
+	}
+	
+	/**
+	 * @param game to write.
+	 * @return the SGF text of the game.
+	*/
+	public static String toString(SgfGame game) {
+		StringWriter out = new StringWriter();
+		try {
+			write(game, out);
+		} catch(IOException e) {
+			throw new UncheckedIOException(e); // StringWriter doesn't throw
+		}
+		return out.toString();
+	}
+	
+	private static void writePoints(String id, List<Point> points, Writer out) throws IOException {
+		if(points.isEmpty()) {
+			return;
+		}
+		out.write(id);
+		for(Point p : points) {
+			out.write("[%s]".formatted(point(p)));
+		}
+	}
+	
+	private static String point(Point p) {
+		return "%c%c".formatted(letter(p.x), letter(p.y));
+	}
+	
+	private static char letter(int coordinate) {
+		return (char) (coordinate < 26 ? 'a' + coordinate : 'A' + coordinate - 26);
+	}
+	
+	private static String escape(String value) {
+		return value.replace("\\", "\\\\").replace("]", "\\]");
+	}
+}
@@ -0,0 +1,96 @@
+package gogame;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * The moves of a GoState in the order they were played, with the information needed to take them back.
+ * A record holds the move's index (or PASS), the player who made it, whether the state before the move was added to the history,
+ * and the stones the move captured. The records are stored in primitive arrays, so pushing a move doesn't allocate (apart from growing the arrays).
+*/
+final class UndoStack implements Serializable {
+	private static final long serialVersionUID = 1;
+	static final int PASS = -1;
+	private static final int INITIAL_CAPACITY = 64;
+	private static final byte WHITE_MOVED = 1;
+	private static final byte ADDED_TO_HISTORY = 2;
+
+	private int[] moves;
+	private byte[] flags;
+	private int[] capturedEnds; // the captured stones of the record r are at capturedStones[capturedEnds[r - 1] ... capturedEnds[r] - 1]
+	private int[] capturedStones; // index * 2 + stone color's ordinal
+	private int size;
+	private int capturedSize;
+
+	UndoStack() {
+		moves = new int[INITIAL_CAPACITY];
+		flags = new byte[INITIAL_CAPACITY];
+		capturedEnds = new int[INITIAL_CAPACITY];
+		capturedStones = new int[INITIAL_CAPACITY];
+	}
+
+	UndoStack(UndoStack o) {
+		moves = o.moves.clone();
+		flags = o.flags.clone();
+		capturedEnds = o.capturedEnds.clone();
+		capturedStones = o.capturedStones.clone();
+		size = o.size;
+		capturedSize = o.capturedSize;
+	}
+
+	/**
+	 * Starts a new record.
+	 * @param move index of the placed stone, or PASS.
+	 * @param player who made the move.
+	*/
+	void push(int move, Stone player) {
+		if(size == moves.length) {
+			moves = Arrays.copyOf(moves, 2 * size);
+			flags = Arrays.copyOf(flags, 2 * size);
+			capturedEnds = Arrays.copyOf(capturedEnds, 2 * size);
+		}
+		moves[size] = move;
+		flags[size] = Stone.WHITE == player ? WHITE_MOVED : 0;
+		capturedEnds[size] = capturedSize;
+		++size;
+	}
+
+	/**
+	 * Adds a captured stone to the last record.
+	*/
+	void addCaptured(int i, Stone s) {
+		if(capturedSize == capturedStones.length) {
+			capturedStones = Arrays.copyOf(capturedStones, 2 * capturedSize);
+		}
+		capturedStones[capturedSize++] = 2 * i + s.ordinal();
+		capturedEnds[size - 1] = capturedSize;
+	}
+
+	/**
+	 * Notes, that the state before the last move was added to the history (so it has to be removed, when the move is taken back).
+	*/
+	void markAddedToHistory() {
+		flags[size - 1] |= ADDED_TO_HISTORY;
+	}
+
+	/**
+	 * Removes the last record, its data can be read (with "top" methods) until the next push.
+	*/
+	void pop() {
+		--size;
+		capturedSize = 0 == size ? 0 : capturedEnds[size - 1];
+	}
+
+	int size() { return size; }
+	int move(int r) { return moves[r]; }
+	Stone player(int r) { return 0 != (flags[r] & WHITE_MOVED) ? Stone.WHITE : Stone.BLACK; }
+	int capturedCount(int r) { return capturedEnds[r] - (0 == r ? 0 : capturedEnds[r - 1]); }
+	int capturedIndex(int r, int k) { return capturedStones[(0 == r ? 0 : capturedEnds[r - 1]) + k] / 2; }
+
+	Stone topPlayer() { return 0 != (flags[size] & WHITE_MOVED) ? Stone.WHITE : Stone.BLACK; }
+	int topMove() { return moves[size]; }
+	boolean topAddedToHistory() { return 0 != (flags[size] & ADDED_TO_HISTORY); }
+	int topCapturedCount() { return capturedEnds[size] - capturedSize; }
+	int topCapturedIndex(int k) { return capturedStones[capturedSize + k] / 2; }
+	Stone topCapturedStone(int k) { return 0 == capturedStones[capturedSize + k] % 2 ? Stone.BLACK : Stone.WHITE; }
+}
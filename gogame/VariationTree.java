@@ -0,0 +1,119 @@
+package gogame;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A tree of variations of a game: every node is a move and the Position after it, the children of a node are the alternative next moves.
+ * The positions share their unchanged rows and history with their parents, so a tree can hold thousands of branches, and the history of
+ * every branch (for superko) holds only the positions of the branch.
+*/
+public final class VariationTree {
+	/**
+	 * A move of the tree, and the position after it.
+	*/
+	public static final class Node {
+		private final Node parent; // null for the root
+		private final Point move; // null for a pass (and for the root)
+		private final Position position;
+		private final int depth;
+		private final List<Node> children = new ArrayList<>(1); // most nodes have only one continuation
+
+		private Node(Node parent, Point move, Position position) {
+			this.parent = parent;
+			this.move = move;
+			this.position = position;
+			depth = null == parent ? 0 : parent.depth + 1;
+		}
+
+		public Node getParent() { return parent; }
+		public Point getMove() { return move; }
+		public Position getPosition() { return position; }
+
+		/**
+		 * @return the number of moves from the root.
+		*/
+		public int getDepth() { return depth; }
+
+		/**
+		 * @return the variations after this node, the first one is the main line.
+		*/
+		public List<Node> getChildren() { return Collections.unmodifiableList(children); }
+
+		/**
+		 * Continues the variation by a move: an existing child of the same move is reused, otherwise a new variation is added.
+		 * @param p the point of the move, or null for a pass.
+		 * @return the node of the move.
+		 * @throws IllegalArgumentException if the move is illegal in the position.
+		*/
+		public Node play(Point p) {
+			for(Node child : children) {
+				if(null == p ? null == child.move : p.equals(child.move)) {
+					return child;
+				}
+			}
+			Node child = new Node(this, p, position.move(p));
+			children.add(child);
+			return child;
+		}
+
+		/**
+		 * Removes a variation (with its continuations).
+		 * @param child a child of this node.
+		 * @return true if the node was a child.
+		*/
+		public boolean remove(Node child) {
+			return children.remove(child);
+		}
+
+		/**
+		 * @return the moves from the root to this node (null for a pass).
+		*/
+		public List<Point> getMoves() {
+			List<Point> moves = new ArrayList<>(Collections.nCopies(depth, null));
+			for(Node node = this; null != node.parent; node = node.parent) {
+				moves.set(node.depth - 1, node.move);
+			}
+			return moves;
+		}
+	}
+
+	private final Node root;
+
+	/**
+	 * @param start the position before the first move.
+	*/
+	public VariationTree(Position start) {
+		root = new Node(null, null, start);
+	}
+
+	public Node getRoot() { return root; }
+
+	/**
+	 * Plays a line of moves from the root, reusing the existing nodes.
+	 * @param moves the points of the moves (null for a pass).
+	 * @return the node of the last move.
+	*/
+	public Node play(List<Point> moves) {
+		Node node = root;
+		for(Point p : moves) {
+			node = node.play(p);
+		}
+		return node;
+	}
+
+	/**
+	 * @return the number of nodes in the tree (the root included).
+	*/
+	public int getNodeCount() {
+		int count = 0;
+		List<Node> stack = new ArrayList<>(List.of(root));
+		while(!stack.isEmpty()) {
+			Node node = stack.removeLast();
+			++count;
+			stack.addAll(node.children);
+		}
+		return count;
+	}
+}
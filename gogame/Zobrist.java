@@ -0,0 +1,54 @@
+package gogame;
+
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+
+/**
+ * Zobrist keys used to hash GoStates incrementally.
+ * Every (point, stone color) pair of a board size gets a random 64-bit key, the hash of a board is the XOR of the keys of its stones.
+ * The keys are generated from a fixed seed, so the hashes are the same in every run of the program.
+*/
+final class Zobrist {
+	private static final long SEED = 0x5DEECE66DL;
+	private static final int MAX_CACHED_SIZE = 25;
+	private static final long[][] CACHE = IntStream.rangeClosed(0, MAX_CACHED_SIZE)
+			.mapToObj(Zobrist::generate)
+			.toArray(long[][]::new); // built in the class initialization, so every thread sees the complete keys without synchronization
+
+	/**
+	 * Key XORed into the hash when it's white's turn (the same board with different players to move is a different state).
+	*/
+	static final long WHITE_TO_MOVE = new SplittableRandom(SEED).nextLong();
+
+	private Zobrist() {}
+
+	/**
+	 * Returns the keys for a board size. The key of the stone "s" on the point (x, y) is at index: 2 * (y * size + x) + s.ordinal().
+	 * @param size of the board.
+	 * @return the keys for the given board size (must not be modified).
+	*/
+	static long[] keys(int size) {
+		if(size > MAX_CACHED_SIZE) {
+			return generate(size);
+		}
+		return CACHE[size];
+	}
+
+	/**
+	 * Returns the key of a stone on a point.
+	 * @param keys of the board size (from {@link #keys(int)}).
+	 * @param index of the point: y * size + x.
+	 * @param s color of the stone.
+	 * @return the key of the stone.
+	*/
+	static long key(long[] keys, int index, Stone s) {
+		return keys[2 * index + s.ordinal()];
+	}
+
+	private static long[] generate(int size) {
+		SplittableRandom random = new SplittableRandom(SEED ^ size);
+		return IntStream.range(0, 2 * size * size)
+				.mapToLong(i -> random.nextLong())
+				.toArray();
+	}
+}
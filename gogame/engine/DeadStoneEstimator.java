@@ -0,0 +1,93 @@
+package gogame.engine;
+
+import java.util.SplittableRandom;
+
+import gogame.BoardSpace;
+import gogame.GoState;
+import gogame.Score;
+import gogame.Scorer;
+import gogame.ScoringRule;
+
+/**
+ * Estimates the dead stones of a finished game by Monte Carlo: random games are played from the position, and a stone is considered dead,
+ * if its point is owned by the opponent at the end of at least half of the games (a point, that ends up neutral, doesn't count against the stone).
+*/
+public final class DeadStoneEstimator {
+	public static final int DEFAULT_PLAYOUTS = 500;
+	
+	private final int playouts;
+	private final SplittableRandom random;
+	private final PlayoutSimulator simulator;
+	private final Scorer scorer;
+	private final byte[] owners;
+	private final int[] lost; // the number of games, in which the opponent owned the point of the stone
+	
+	public DeadStoneEstimator(int size) {
+		this(size, DEFAULT_PLAYOUTS, System.nanoTime());
+	}
+	
+	/**
+	 * @param size of the board.
+	 * @param playouts the number of random games played per estimate.
+	 * @param seed of the random moves (the same seed gives the same estimates).
+	*/
+	public DeadStoneEstimator(int size, int playouts, long seed) {
+		if(playouts <= 0) {
+			throw new IllegalArgumentException("The number of playouts must be positive: %d".formatted(playouts));
+		}
+		this.playouts = playouts;
+		random = new SplittableRandom(seed);
+		simulator = new PlayoutSimulator(size);
+		scorer = new Scorer(size);
+		owners = new byte[size * size];
+		lost = new int[size * size];
+	}
+	
+	/**
+	 * @param state the finished game.
+	 * @return the dead stones (by the points' index).
+	*/
+	public boolean[] estimate(GoState state) {
+		byte empty = (byte) BoardSpace.EMPTY.ordinal();
+		byte[] initial = new byte[lost.length];
+		for(int i = 0; i < lost.length; i++) {
+			initial[i] = (byte) state.getBoardSpace(i).ordinal();
+			lost[i] = 0;
+		}
+		for(int game = 0; game < playouts; game++) {
+			simulator.reset(state);
+			scorer.owners(simulator.playout(random), owners);
+			for(int i = 0; i < lost.length; i++) {
+				if(empty != owners[i] && initial[i] != owners[i]) { // owned by the other color
+					++lost[i];
+				}
+			}
+		}
+		
+		boolean[] dead = new boolean[lost.length];
+		for(int i = 0; i < lost.length; i++) {
+			dead[i] = empty != initial[i] && isDead(lost[i], playouts);
+		}
+		return dead;
+	}
+	
+	/**
+	 * @param lost the number of games, in which the opponent owned the point of the stone.
+	 * @param playouts the number of games.
+	 * @return whether the stone is dead: the opponent owned its point in at least half of the games.
+	*/
+	static boolean isDead(int lost, int playouts) {
+		return playouts <= 2 * lost;
+	}
+	
+	/**
+	 * Scores a finished game, without the estimated dead stones.
+	 * @param state the finished game.
+	 * @param rule the scoring rule.
+	 * @param komi the points given to white.
+	 * @return the score.
+	*/
+	public Score score(GoState state, ScoringRule rule, double komi) {
+		return scorer.score(state, rule, komi, estimate(state));
+	}
+}
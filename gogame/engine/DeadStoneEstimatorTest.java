@@ -0,0 +1,57 @@
+package gogame.engine;
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import gogame.GoState;
+import gogame.GoStateParser;
+import gogame.Score;
+import gogame.ScoringRule;
+
+@DisplayName("DeadStoneEstimator tests")
+public class DeadStoneEstimatorTest {
+	@DisplayName("Testing, that a lone stone in the opponent's territory is estimated dead, and the walls alive.")
+	@Test
+	public void testEstimate() {
+		GoState state = GoStateParser.parseGoState("""
+			_,_,_,_,B,W,_,_,_
+			_,W,_,_,B,W,_,_,_
+			_,_,_,_,B,W,_,_,_
+			_,_,_,_,B,W,_,_,_
+			_,_,_,_,B,W,_,_,_
+			_,_,_,_,B,W,_,_,_
+			_,_,_,_,B,W,_,_,_
+			_,_,_,_,B,W,_,_,_
+			_,_,_,_,B,W,_,_,_
+			""");
+		DeadStoneEstimator estimator = new DeadStoneEstimator(9, DeadStoneEstimator.DEFAULT_PLAYOUTS, 1);
+		boolean[] dead = estimator.estimate(state);
+		
+		assertAll(
+				() -> assertTrue(dead[1 * 9 + 1]),
+				() -> assertFalse(dead[4]),
+				() -> assertFalse(dead[5]),
+				() -> assertEquals(new Score(ScoringRule.AREA, 45, 43.5), estimator.score(state, ScoringRule.AREA, 7.5))
+		);
+	}
+	
+	@DisplayName("Testing, that a stone is dead, if the opponent owned its point in at least half of the games (the neutral results don't count).")
+	@ParameterizedTest(name = "lost {0} of {1}: dead {2}")
+	@CsvSource({
+		"50, 100, true",
+		"49, 100, false",
+		"51, 101, true",
+		"50, 101, false",
+		"0, 100, false", // neutral or kept in every game
+		"1, 1, true",
+	})
+	public void testIsDead(int lost, int playouts, boolean dead) {
+		assertEquals(dead, DeadStoneEstimator.isDead(lost, playouts));
+	}
+}
@@ -0,0 +1,51 @@
+package gogame.engine;
+
+import gogame.BoardSpace;
+import gogame.GoState;
+import gogame.NeighborTable;
+import gogame.Stone;
+
+/**
+ * Helper to recognize the eyes of a color, so random playouts don't fill their own eyes (which would make the games endless).
+*/
+final class Eyes {
+	private Eyes() {}
+	
+	/**
+	 * Checks whether an empty point is an eye of the given color: all of its neighbors are stones of the color,
+	 * and the opponent occupies at most one of its diagonal points (none, if the point is on the edge of the board).
+	 * @param state the position.
+	 * @param neighbors the neighbor table of the state's board size.
+	 * @param i index of an empty point.
+	 * @param s the color of the eye.
+	 * @return true if the point is an eye of "s".
+	*/
+	static boolean isEye(GoState state, NeighborTable neighbors, int i, Stone s) {
+		BoardSpace own = BoardSpace.fromStone(s);
+		for(int k = 0, count = neighbors.count(i); k < count; k++) {
+			if(own != state.getBoardSpace(neighbors.neighbor(i, k))) {
+				return false;
+			}
+		}
+		
+		int size = state.getSize();
+		int x = i % size;
+		int y = i / size;
+		BoardSpace opponent = BoardSpace.fromStone(s.opposite());
+		int opponentDiagonals = 0;
+		int diagonals = 0;
+		for(int dy = -1; dy <= 1; dy += 2) {
+			for(int dx = -1; dx <= 1; dx += 2) {
+				int nx = x + dx;
+				int ny = y + dy;
+				if(0 <= nx && nx < size && 0 <= ny && ny < size) {
+					++diagonals;
+					if(opponent == state.getBoardSpace(nx, ny)) {
+						++opponentDiagonals;
+					}
+				}
+			}
+		}
+		return opponentDiagonals == 0 || (4 == diagonals && 1 == opponentDiagonals);
+	}
+}
@@ -0,0 +1,36 @@
+package gogame.engine;
+
+import java.util.stream.IntStream;
+
+import gogame.BoardSize;
+import gogame.GoState;
+
+/**
+ * Measures how the parallel search scales: runs searches from the empty board of every size, with 1, 2, 4, ... threads, and prints the playouts per second.
+ * Usage: MctsBenchmark [seconds per search] [maximum number of threads]
+*/
+public class MctsBenchmark {
+	public static void main(String[] args) {
+		long millis = 1000 * (0 < args.length ? Long.parseLong(args[0]) : 3);
+		int maxThreads = 1 < args.length ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+		int[] threadCounts = IntStream.iterate(1, threads -> threads < maxThreads, threads -> 2 * threads) // 1, 2, 4, ... below the maximum
+				.toArray();
+		
+		System.out.println("size  threads  playouts/s  speedup");
+		for(BoardSize boardSize : new BoardSize[] { BoardSize.NINE, BoardSize.NINETEEN }) {
+			GoState state = new GoState(boardSize.getSize());
+			new MctsPlayer(MctsPlayer.DEFAULT_KOMI, 0).bestMove(state, SearchBudget.ofMillis(millis)); // warm up
+			
+			double base = 0;
+			for(int threads : IntStream.concat(IntStream.of(threadCounts), IntStream.of(maxThreads)).distinct().toArray()) {
+				double playoutsPerSecond;
+				try(MctsPlayer player = new MctsPlayer(MctsPlayer.DEFAULT_KOMI, threads, threads)) {
+					player.bestMove(state, SearchBudget.ofMillis(millis));
+					playoutsPerSecond = player.getLastPlayoutsPerSecond();
+				}
+				base = 1 == threads ? playoutsPerSecond : base;
+				System.out.println("%-5s %7d %11.0f %8.2f".formatted(boardSize, threads, playoutsPerSecond, playoutsPerSecond / base));
+			}
+		}
+	}
+}
@@ -0,0 +1,265 @@
+package gogame.engine;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.IntStream;
+
+import gogame.GoState;
+import gogame.NeighborTable;
+import gogame.Point;
+import gogame.Scorer;
+import gogame.Stone;
+
+/**
+ * Computer player, that chooses its moves by Monte Carlo Tree Search (UCT).
+ * The search walks up and down on one copy of the position with makeMove/unmakeMove, so the playouts don't copy boards.
+ * The playouts are played by a PlayoutSimulator (random legal moves, that don't fill the player's own eyes, until both players pass), then the board is scored by area with komi.
+ * With more threads the search is tree parallel: the threads share one tree (with atomic statistics and virtual loss), each thread has its own copy of the position.
+ * The helper threads are kept in a pool between the searches, until the player is closed.
+*/
+public final class MctsPlayer implements AutoCloseable {
+	public static final double DEFAULT_KOMI = 7.5;
+	private static final double EXPLORATION = Math.sqrt(2);
+	private static final int ROOT = -2; // the root node isn't reached by a move
+	
+	private final double komi;
+	private final int threads;
+	private final ExecutorService pool; // the helper threads of the search, null with one thread
+	private final SplittableRandom random;
+	private long lastPlayouts;
+	private long lastNanos;
+	
+	public MctsPlayer() {
+		this(DEFAULT_KOMI, System.nanoTime());
+	}
+	
+	/**
+	 * @param komi points given to white for moving second.
+	 * @param seed of the random generator (the same seed and budget in playouts gives the same moves).
+	*/
+	public MctsPlayer(double komi, long seed) {
+		this(komi, seed, 1);
+	}
+	
+	/**
+	 * @param komi points given to white for moving second.
+	 * @param seed of the random generator (with more threads the search isn't deterministic, because of the threads' timing).
+	 * @param threads the number of search threads (the calling thread and threads - 1 daemon helper threads).
+	*/
+	public MctsPlayer(double komi, long seed, int threads) {
+		if(threads < 1) {
+			throw new IllegalArgumentException("Invalid number of threads: %d".formatted(threads));
+		}
+		this.komi = komi;
+		this.threads = threads;
+		pool = 1 == threads ? null : Executors.newFixedThreadPool(threads - 1, Thread.ofPlatform().name("gogame-mcts-", 1).daemon().factory());
+		random = new SplittableRandom(seed);
+	}
+	
+	/**
+	 * Searches the best move for the player to move.
+	 * @param state the position (it isn't modified).
+	 * @param budget the time or playout limit of the search.
+	 * @return the chosen point, or null to pass.
+	*/
+	public Point bestMove(GoState state, SearchBudget budget) {
+		Node root = search(state, budget);
+		Node best = null;
+		for(int k = 0; k < root.childCount(); k++) {
+			if(null == best || best.visits() < root.child(k).visits()) {
+				best = root.child(k);
+			}
+		}
+		int size = state.getSize();
+		return null == best || Node.PASS == best.move ? null : Point.of(best.move % size, best.move / size);
+	}
+	
+	/**
+	 * Runs a search.
+	 * @param state the position (it isn't modified).
+	 * @param budget the time or playout limit of the search.
+	 * @return the root of the search tree.
+	*/
+	Node search(GoState state, SearchBudget budget) {
+		if(null != pool && pool.isShutdown()) {
+			throw new IllegalStateException("The player is closed");
+		}
+		Node root = new Node(null, ROOT, state.turn.opposite());
+		List<Search> searches = IntStream.range(0, threads)
+				.mapToObj(k -> new Search(new GoState(state), root, random.split()))
+				.toList();
+		
+		long start = System.nanoTime();
+		long deadline = budget.millis() < Long.MAX_VALUE / 1_000_000 ? start + budget.millis() * 1_000_000 : Long.MAX_VALUE;
+		AtomicLong started = new AtomicLong(); // playouts started by any thread
+		LongAdder finished = new LongAdder();
+		if(1 == threads) {
+			searches.get(0).searchUntil(budget.playouts(), deadline, started, finished);
+		} else {
+			try {
+				List<Future<?>> helpers = searches.subList(1, threads).stream()
+						.<Future<?>>map(search -> pool.submit(() -> search.searchUntil(budget.playouts(), deadline, started, finished)))
+						.toList();
+				searches.get(0).searchUntil(budget.playouts(), deadline, started, finished); // the calling thread searches too
+				for(Future<?> helper : helpers) {
+					helper.get();
+				}
+			} catch(InterruptedException | ExecutionException e) {
+				throw new IllegalStateException("The search failed", e);
+			}
+		}
+		lastPlayouts = finished.sum();
+		lastNanos = System.nanoTime() - start;
+		return root;
+	}
+	
+	/**
+	 * @return the number of playouts of the last search.
+	*/
+	public long getLastPlayouts() { return lastPlayouts; }
+	
+	/**
+	 * @return the speed of the last search.
+	*/
+	public double getLastPlayoutsPerSecond() {
+		return 0 == lastNanos ? 0 : lastPlayouts * 1e9 / lastNanos;
+	}
+	
+	/**
+	 * Stops the helper threads (after the running search).
+	*/
+	@Override
+	public void close() {
+		if(null != pool) {
+			pool.close();
+		}
+	}
+	
+	/**
+	 * The state of one search thread: the position the tree is walked on, and the scratch buffers of the playouts (reused by every playout).
+	*/
+	private final class Search {
+		private final GoState board;
+		private final Node root;
+		private final SplittableRandom random;
+		private final int size;
+		private final NeighborTable neighbors;
+		private final BitSet legalMoves;
+		private final int[] candidates;
+		private final PlayoutSimulator simulator;
+		private final Scorer scorer;
+		
+		Search(GoState board, Node root, SplittableRandom random) {
+			this.board = board;
+			this.root = root;
+			this.random = random;
+			size = board.getSize();
+			neighbors = NeighborTable.of(size);
+			legalMoves = new BitSet(size * size);
+			candidates = new int[size * size];
+			simulator = new PlayoutSimulator(size);
+			scorer = new Scorer(size);
+		}
+		
+		/**
+		 * Runs playouts until the shared playout budget is used up, or the deadline is reached.
+		*/
+		void searchUntil(long maxPlayouts, long deadline, AtomicLong started, LongAdder finished) {
+			long iterations = 0;
+			while(started.getAndIncrement() < maxPlayouts && (0 != (iterations++ & 15) || System.nanoTime() < deadline)) { // the clock is read only every 16 playouts
+				run();
+				finished.increment();
+			}
+		}
+		
+		/**
+		 * One iteration of the search: selection, expansion, playout and backpropagation.
+		*/
+		private void run() {
+			Node node = root;
+			node.addVisit();
+			int depth = 0;
+			while(node.isExpanded() && !node.hasUntriedMoves() && 0 < node.childCount() && !isTerminal(node)) { // selection
+				node = select(node);
+				node.addVisit();
+				play(node.move);
+				++depth;
+			}
+			
+			if(!isTerminal(node)) { // expansion
+				if(!node.isExpanded()) {
+					int count = generateMoves();
+					node.setMoves(0 == count ? new int[] { Node.PASS } : Arrays.copyOf(candidates, count), Math.max(1, count));
+				}
+				Node child = node.expand(random::nextInt, board.turn);
+				if(null != child) { // null, if an other thread expanded the last untried move
+					node = child;
+					node.addVisit();
+					play(node.move);
+					++depth;
+				}
+			}
+			
+			simulator.reset(board);
+			byte[] finalBoard = isTerminal(node) ? simulator.getBoard() : simulator.playout(random, Node.PASS == node.move);
+			Stone winner = scorer.areaDifference(finalBoard) > komi ? Stone.BLACK : Stone.WHITE; // ties go to white
+			for(Node n = node; null != n; n = n.parent) { // backpropagation (the visits were counted on the way down)
+				if(winner == n.player) {
+					n.addWin();
+				}
+			}
+			
+			for(int k = 0; k < depth; k++) {
+				board.unmakeMove();
+			}
+		}
+		
+		private boolean isTerminal(Node node) {
+			return Node.PASS == node.move && null != node.parent && Node.PASS == node.parent.move; // both players passed
+		}
+		
+		private Node select(Node node) {
+			double logVisits = Math.log(node.visits());
+			Node best = null;
+			double bestValue = Double.NEGATIVE_INFINITY;
+			for(int k = 0, count = node.childCount(); k < count; k++) {
+				Node child = node.child(k);
+				int visits = child.visits();
+				double value = 0 == visits ? Double.POSITIVE_INFINITY : // just added by an other thread
+						(double) child.wins() / visits + EXPLORATION * Math.sqrt(logVisits / visits);
+				if(bestValue < value) {
+					bestValue = value;
+					best = child;
+				}
+			}
+			return best;
+		}
+		
+		private void play(int move) {
+			board.makeMove(Node.PASS == move ? null : Point.of(move % size, move / size));
+		}
+		
+		/**
+		 * Collects the legal moves of the player to move, that don't fill the player's own eyes, into "candidates".
+		 * @return the number of the moves.
+		*/
+		private int generateMoves() {
+			board.legalMoves(legalMoves);
+			int count = 0;
+			for(int i = legalMoves.nextSetBit(0); 0 <= i; i = legalMoves.nextSetBit(i + 1)) {
+				if(!Eyes.isEye(board, neighbors, i, board.turn)) {
+					candidates[count++] = i;
+				}
+			}
+			return count;
+		}
+	}
+}
@@ -0,0 +1,96 @@
+package gogame.engine;
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import gogame.GoState;
+import gogame.GoStateParser;
+import gogame.Point;
+import gogame.Stone;
+
+@DisplayName("MctsPlayer tests")
+public class MctsPlayerTest {
+	@DisplayName("Testing, that the engine chooses a legal move, and respects the playout budget.")
+	@Test
+	public void testBestMoveLegal() {
+		GoState state = new GoState(9);
+		MctsPlayer player = new MctsPlayer(MctsPlayer.DEFAULT_KOMI, 1);
+		Point move = player.bestMove(state, SearchBudget.ofPlayouts(500));
+		
+		assertAll(
+				() -> assertTrue(state.isLegalMove(move)),
+				() -> assertEquals(500, player.getLastPlayouts()),
+				() -> assertEquals(0, state.getMoveCount()) // the searched state isn't modified
+		);
+	}
+	
+	@DisplayName("Testing, that the engine passes, when its only legal moves would fill its own eyes.")
+	@Test
+	public void testBestMoveDoesntFillEyes() {
+		GoState state = GoStateParser.parseGoState("""
+			B,B,B,B,B,B,B,B,B
+			B,_,B,B,B,B,B,B,B
+			B,B,B,B,B,B,B,B,B
+			B,B,B,B,B,B,B,B,B
+			B,B,B,B,_,B,B,B,B
+			B,B,B,B,B,B,B,B,B
+			B,B,B,B,B,B,B,B,B
+			B,B,B,B,B,B,B,_,B
+			B,B,B,B,B,B,B,B,B
+			""");
+		state.turn = Stone.BLACK;
+		assertNull(new MctsPlayer(MctsPlayer.DEFAULT_KOMI, 1).bestMove(state, SearchBudget.ofPlayouts(100)));
+	}
+	
+	@DisplayName("Testing, that the tree of a multi-threaded search is consistent: every playout is counted once, in every node it went through.")
+	@Test
+	public void testParallelSearch() {
+		GoState state = new GoState(9);
+		try(MctsPlayer player = new MctsPlayer(MctsPlayer.DEFAULT_KOMI, 1, 4)) {
+			for(int search = 0; search < 3; search++) { // the helper threads are reused by the searches
+				Node root = player.search(state, SearchBudget.ofPlayouts(2000));
+				assertEquals(2000, player.getLastPlayouts());
+				assertEquals(2000, root.visits());
+				
+				Deque<Node> nodes = new ArrayDeque<>();
+				nodes.push(root);
+				while(!nodes.isEmpty()) {
+					Node node = nodes.pop();
+					int childVisits = 0;
+					int childLosses = 0; // the playouts through the children, won by the node's player
+					for(int k = 0; k < node.childCount(); k++) {
+						Node child = node.child(k);
+						childVisits += child.visits();
+						childLosses += child.visits() - child.wins();
+						nodes.push(child);
+					}
+					int ownPlayouts = node.visits() - childVisits; // the playouts, that ended in the node (the visits of a node are its children's visits and its own playouts)
+					int ownWins = node.wins() - childLosses;
+					assertTrue(0 <= ownPlayouts);
+					assertTrue(0 <= ownWins && ownWins <= ownPlayouts); // no visit or win was lost by the concurrent updates
+					if(node != root && 0 < node.childCount()) {
+						assertTrue(1 <= ownPlayouts); // the playout of the node's expansion
+					}
+				}
+			}
+			assertEquals(0, state.getMoveCount());
+		}
+	}
+	
+	@DisplayName("Testing, that a closed player can't search any more.")
+	@Test
+	public void testClosed() {
+		GoState state = new GoState(9);
+		MctsPlayer player = new MctsPlayer(MctsPlayer.DEFAULT_KOMI, 1, 2);
+		player.close();
+		assertThrows(IllegalStateException.class, () -> player.bestMove(state, SearchBudget.ofPlayouts(10)));
+	}
+}
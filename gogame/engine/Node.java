@@ -0,0 +1,91 @@
+package gogame.engine;
+
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.function.IntUnaryOperator;
+
+import gogame.Stone;
+
+/**
+ * A node of the Monte Carlo search tree: a position reached by a move, with the statistics of the playouts that went through it.
+ * The tree is shared by the search threads: the statistics are updated with atomic operations, the expansion is synchronized on the node,
+ * and the children are published through volatile fields, so the selection can read them without locking.
+*/
+final class Node {
+	static final int PASS = -1;
+	private static final AtomicIntegerFieldUpdater<Node> VISITS = AtomicIntegerFieldUpdater.newUpdater(Node.class, "visits");
+	private static final AtomicIntegerFieldUpdater<Node> WINS = AtomicIntegerFieldUpdater.newUpdater(Node.class, "wins");
+	
+	final Node parent;
+	final int move; // index of the move leading to this node, or PASS
+	final Stone player; // the player who made the move
+	private volatile Node[] children; // null until the node is expanded for the first time
+	private volatile int childCount;
+	private int[] untried; // the moves, that don't have a child yet (guarded by the node's lock)
+	private volatile int untriedCount; // written under the node's lock, read without it
+	private volatile int visits; // playouts that went through the node, including the ones still running (virtual loss)
+	private volatile int wins; // finished playouts won by "player"
+	
+	Node(Node parent, int move, Stone player) {
+		this.parent = parent;
+		this.move = move;
+		this.player = player;
+	}
+	
+	boolean isExpanded() { return null != children; }
+	int childCount() { return childCount; }
+	Node child(int k) { return children[k]; }
+	int visits() { return visits; }
+	int wins() { return wins; }
+	
+	/**
+	 * Counts a playout, that goes through the node. Until the playout finishes, it counts as a loss (virtual loss),
+	 * so the other threads are steered to different parts of the tree.
+	*/
+	void addVisit() {
+		VISITS.incrementAndGet(this);
+	}
+	
+	/**
+	 * Counts a won playout (its visit was already counted by addVisit).
+	*/
+	void addWin() {
+		WINS.incrementAndGet(this);
+	}
+	
+	/**
+	 * Sets the moves of the node's position, if no other thread did it already.
+	 * @param moves the moves of the position (owned by the node after the call).
+	 * @param count the number of moves.
+	*/
+	synchronized void setMoves(int[] moves, int count) {
+		if(isExpanded()) {
+			return;
+		}
+		untried = moves;
+		untriedCount = count;
+		children = new Node[count]; // every move gets at most one child, so the array never has to grow
+	}
+	
+	/**
+	 * Removes a random untried move and adds its child.
+	 * @param random chooses the move: random.applyAsInt(n) must return a number in [0, n).
+	 * @param player who makes the move.
+	 * @return the new child, or null if every move has a child already.
+	*/
+	synchronized Node expand(IntUnaryOperator random, Stone player) {
+		if(0 == untriedCount) {
+			return null;
+		}
+		int k = random.applyAsInt(untriedCount);
+		int move = untried[k];
+		untried[k] = untried[--untriedCount];
+		Node child = new Node(this, move, player);
+		children[childCount] = child;
+		childCount = childCount + 1; // the volatile write publishes the child to the selecting threads
+		return child;
+	}
+	
+	boolean hasUntriedMoves() {
+		return 0 < untriedCount;
+	}
+}
@@ -0,0 +1,302 @@
+package gogame.engine;
+
+import java.util.SplittableRandom;
+
+import gogame.BoardSpace;
+import gogame.GoState;
+import gogame.NeighborTable;
+import gogame.Stone;
+
+/**
+ * Plays random games quickly (for rollouts and statistical tests).
+ * The simulator copies a position from a GoState, then plays uniformly random legal moves, that don't fill the player's own eyes, until both players pass.
+ * It keeps its own board with pseudo-liberty counts (the number of empty points next to the chain's stones, counted with multiplicity),
+ * which can be updated in O(1) per stone, and is exact for the questions a playout asks ("is the chain's only liberty this point?").
+ * The repetition of states is checked only by the simple Ko rule (the previous move's single captured stone can't be recaptured immediately),
+ * which is a cheap approximation of the positional superko rule of GoState.
+ * The buffers are allocated once, so a simulator can play any number of games without allocating.
+*/
+public final class PlayoutSimulator {
+	private static final byte EMPTY = (byte) BoardSpace.EMPTY.ordinal();
+	private static final byte BLACK = (byte) BoardSpace.BLACK.ordinal();
+	private static final byte WHITE = (byte) BoardSpace.WHITE.ordinal();
+	private static final int NONE = -1;
+
+	private final int size;
+	private final NeighborTable neighbors;
+	private final byte[] board; // BoardSpace ordinals, the point (x, y) is at index y * size + x
+	private final int[] chainOf; // representative of the point's chain
+	private final int[] next; // next stone in the same chain (circular)
+	private final int[] stones; // number of stones in the chain (valid for representatives)
+	private final int[] liberties; // pseudo-liberties of the chain (valid for representatives)
+	private final int[] empties; // the empty points, in arbitrary order
+	private final int[] emptyPosition; // the position of an empty point in "empties"
+	private final int[] stack;
+	private int emptyCount;
+	private byte toMove;
+	private int koPoint; // the point, that can't be played because of the Ko rule, or NONE
+	private int moveCount;
+
+	public PlayoutSimulator(int size) {
+		this.size = size;
+		neighbors = NeighborTable.of(size);
+		board = new byte[size * size];
+		chainOf = new int[size * size];
+		next = new int[size * size];
+		stones = new int[size * size];
+		liberties = new int[size * size];
+		empties = new int[size * size];
+		emptyPosition = new int[size * size];
+		stack = new int[size * size];
+	}
+
+	/**
+	 * Copies the position (board and player to move) of a GoState.
+	 * @param state with the same board size as the simulator.
+	*/
+	public void reset(GoState state) {
+		if(size != state.getSize()) {
+			throw new IllegalArgumentException("Board size mismatch: %d != %d".formatted(state.getSize(), size));
+		}
+		emptyCount = 0;
+		for(int i = 0; i < board.length; i++) {
+			board[i] = (byte) state.getBoardSpace(i).ordinal();
+			chainOf[i] = NONE;
+			if(EMPTY == board[i]) {
+				addEmpty(i);
+			}
+		}
+		for(int i = 0; i < board.length; i++) {
+			if(EMPTY != board[i] && NONE == chainOf[i]) {
+				floodFill(i);
+			}
+		}
+		toMove = (byte) BoardSpace.fromStone(state.turn).ordinal();
+		koPoint = NONE;
+		moveCount = 0;
+	}
+
+	/**
+	 * Plays random moves from the current position until both players pass (or the move limit is reached).
+	 * @param random the source of the moves.
+	 * @return the final board (same as getBoard()).
+	*/
+	public byte[] playout(SplittableRandom random) {
+		return playout(random, false);
+	}
+
+	/**
+	 * Plays random moves from the current position until both players pass (or the move limit is reached).
+	 * @param random the source of the moves.
+	 * @param passed whether the move before the current position was a pass (then one more pass ends the game).
+	 * @return the final board (same as getBoard()).
+	*/
+	public byte[] playout(SplittableRandom random, boolean passed) {
+		int maxMoves = 3 * board.length; // a safety limit, random games practically never get this long
+		int passes = passed ? 1 : 0;
+		while(passes < 2 && moveCount < maxMoves) {
+			passes = playRandomMove(random) ? 0 : passes + 1;
+			++moveCount;
+			toMove = (byte) (BLACK + WHITE - toMove); // switch the player
+		}
+		return board;
+	}
+
+	/**
+	 * @return the number of moves (including passes) played since the last reset.
+	*/
+	public int getMoveCount() { return moveCount; }
+	public int getSize() { return size; }
+	public Stone getTurn() { return BLACK == toMove ? Stone.BLACK : Stone.WHITE; }
+	
+	/**
+	 * @return the current board (BoardSpace ordinals, the point (x, y) is at index y * size + x), it must not be modified.
+	*/
+	public byte[] getBoard() { return board; }
+
+	/**
+	 * Plays a random legal move, that doesn't fill the player's own eye.
+	 * @return false if the player had no such move, and passed.
+	*/
+	private boolean playRandomMove(SplittableRandom random) {
+		int candidates = emptyCount; // the empty points in empties[0 ... candidates - 1] are not tried yet
+		while(0 < candidates) {
+			int k = random.nextInt(candidates);
+			int p = empties[k];
+			if(isLegal(p) && !isEye(p)) {
+				play(p);
+				return true;
+			}
+			--candidates; // move the tried point after the untried ones
+			swapEmpties(k, candidates);
+		}
+		koPoint = NONE;
+		return false;
+	}
+
+	private boolean isLegal(int p) {
+		if(p == koPoint) {
+			return false;
+		}
+		for(int k = 0, count = neighbors.count(p); k < count; k++) {
+			int n = neighbors.neighbor(p, k);
+			if(EMPTY == board[n]) {
+				return true; // the new stone has a liberty
+			}
+			int chain = chainOf[n];
+			int adjacency = adjacency(p, chain); // the chain's pseudo-liberties on "p"
+			if(toMove == board[n] ? adjacency < liberties[chain] : adjacency == liberties[chain]) {
+				return true; // the own chain has an other liberty, or the opposite chain's only liberty is "p" (so it's captured)
+			}
+		}
+		return false; // suicidal move
+	}
+
+	private int adjacency(int p, int chain) {
+		int adjacency = 0;
+		for(int k = 0, count = neighbors.count(p); k < count; k++) {
+			if(chain == chainOf[neighbors.neighbor(p, k)]) {
+				++adjacency;
+			}
+		}
+		return adjacency;
+	}
+
+	private boolean isEye(int p) {
+		for(int k = 0, count = neighbors.count(p); k < count; k++) {
+			if(toMove != board[neighbors.neighbor(p, k)]) {
+				return false;
+			}
+		}
+		byte opponent = (byte) (BLACK + WHITE - toMove);
+		int x = p % size;
+		int y = p / size;
+		int diagonals = 0;
+		int opponentDiagonals = 0;
+		for(int dy = -1; dy <= 1; dy += 2) {
+			for(int dx = -1; dx <= 1; dx += 2) {
+				if(0 <= x + dx && x + dx < size && 0 <= y + dy && y + dy < size) {
+					++diagonals;
+					if(opponent == board[p + dy * size + dx]) {
+						++opponentDiagonals;
+					}
+				}
+			}
+		}
+		return 0 == opponentDiagonals || (4 == diagonals && 1 == opponentDiagonals);
+	}
+
+	private void play(int p) {
+		byte opponent = (byte) (BLACK + WHITE - toMove);
+		board[p] = toMove;
+		removeEmpty(p);
+		chainOf[p] = p;
+		next[p] = p;
+		stones[p] = 1;
+		liberties[p] = 0;
+		for(int k = 0, count = neighbors.count(p); k < count; k++) {
+			int n = neighbors.neighbor(p, k);
+			if(EMPTY == board[n]) {
+				++liberties[p];
+			} else {
+				--liberties[chainOf[n]]; // "p" was the neighbor chain's pseudo-liberty
+			}
+		}
+		for(int k = 0, count = neighbors.count(p); k < count; k++) {
+			int n = neighbors.neighbor(p, k);
+			if(toMove == board[n] && chainOf[n] != chainOf[p]) {
+				merge(chainOf[p], chainOf[n]);
+			}
+		}
+
+		int captured = 0;
+		int capturedPoint = NONE;
+		for(int k = 0, count = neighbors.count(p); k < count; k++) {
+			int n = neighbors.neighbor(p, k);
+			if(opponent == board[n] && 0 == liberties[chainOf[n]]) {
+				captured += stones[chainOf[n]];
+				capturedPoint = n;
+				removeChain(chainOf[n]);
+			}
+		}
+		int chain = chainOf[p];
+		koPoint = 1 == captured && 1 == stones[chain] && 1 == liberties[chain] ? capturedPoint : NONE; // the single stone could be recaptured immediately
+	}
+
+	private void merge(int a, int b) {
+		if(stones[a] < stones[b]) {
+			int t = a;
+			a = b;
+			b = t;
+		}
+		int i = b;
+		do {
+			chainOf[i] = a;
+			i = next[i];
+		} while(i != b);
+		int t = next[a];
+		next[a] = next[b];
+		next[b] = t;
+		stones[a] += stones[b];
+		liberties[a] += liberties[b];
+	}
+
+	private void removeChain(int chain) {
+		int i = chain;
+		do {
+			board[i] = EMPTY;
+			chainOf[i] = NONE;
+			addEmpty(i);
+			for(int k = 0, count = neighbors.count(i); k < count; k++) {
+				int n = neighbors.neighbor(i, k);
+				if(EMPTY != board[n]) {
+					++liberties[chainOf[n]]; // counts for the removed chain's own stones too, but it doesn't matter anymore
+				}
+			}
+			i = next[i];
+		} while(i != chain);
+	}
+
+	private void floodFill(int start) {
+		byte color = board[start];
+		int top = 0;
+		stack[top++] = start;
+		chainOf[start] = start;
+		next[start] = start;
+		stones[start] = 1;
+		liberties[start] = 0;
+		while(0 < top) {
+			int i = stack[--top];
+			for(int k = 0, count = neighbors.count(i); k < count; k++) {
+				int n = neighbors.neighbor(i, k);
+				if(EMPTY == board[n]) {
+					++liberties[start];
+				} else if(color == board[n] && NONE == chainOf[n]) {
+					chainOf[n] = start;
+					next[n] = next[start];
+					next[start] = n;
+					++stones[start];
+					stack[top++] = n;
+				}
+			}
+		}
+	}
+
+	private void addEmpty(int i) {
+		emptyPosition[i] = emptyCount;
+		empties[emptyCount++] = i;
+	}
+
+	private void removeEmpty(int i) {
+		swapEmpties(emptyPosition[i], --emptyCount);
+	}
+
+	private void swapEmpties(int a, int b) {
+		int pa = empties[a];
+		int pb = empties[b];
+		empties[a] = pb;
+		empties[b] = pa;
+		emptyPosition[pb] = a;
+		emptyPosition[pa] = b;
+	}
+}
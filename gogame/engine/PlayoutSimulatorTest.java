@@ -0,0 +1,84 @@
+package gogame.engine;
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashSet;
+import java.util.SplittableRandom;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import gogame.BoardSpace;
+import gogame.GoState;
+import gogame.GoStateParser;
+import gogame.NeighborTable;
+import gogame.Point;
+
+@DisplayName("PlayoutSimulator tests")
+public class PlayoutSimulatorTest {
+	private static final int SIZE = 9;
+	private static final byte EMPTY = (byte) BoardSpace.EMPTY.ordinal();
+
+	@DisplayName("Testing, that every chain of the finished games has a liberty, and no empty points are left next to each other.")
+	@Test
+	public void testPlayoutFinalBoard() {
+		PlayoutSimulator simulator = new PlayoutSimulator(SIZE);
+		NeighborTable neighbors = NeighborTable.of(SIZE);
+		SplittableRandom random = new SplittableRandom(1);
+		for(int game = 0; game < 50; game++) {
+			simulator.reset(new GoState(SIZE));
+			byte[] board = simulator.playout(random);
+			GoState state = toGoState(board);
+			IntStream.range(0, board.length).forEach(i -> {
+				if(EMPTY == board[i]) { // an empty point next to an other one would be a legal move for both players, so the game wouldn't be over
+					IntStream.range(0, neighbors.count(i))
+						.forEach(k -> assertNotEquals(EMPTY, board[neighbors.neighbor(i, k)]));
+				} else {
+					Point p = Point.of(i % SIZE, i / SIZE);
+					assertNotEquals(0, state.getLiberties(state.getBoardSpace(p).stone, p, new HashSet<>()).length);
+				}
+			});
+		}
+	}
+
+	@DisplayName("Testing, that the same seed plays the same game.")
+	@Test
+	public void testPlayoutDeterministic() {
+		PlayoutSimulator first = new PlayoutSimulator(SIZE);
+		PlayoutSimulator second = new PlayoutSimulator(SIZE);
+		first.reset(new GoState(SIZE));
+		second.reset(new GoState(SIZE));
+		byte[] firstBoard = first.playout(new SplittableRandom(42)).clone();
+		byte[] secondBoard = second.playout(new SplittableRandom(42));
+
+		assertAll(
+				() -> assertArrayEquals(firstBoard, secondBoard),
+				() -> assertEquals(first.getMoveCount(), second.getMoveCount()),
+				() -> assertTrue(2 <= first.getMoveCount())
+		);
+	}
+
+	@DisplayName("Testing, that a position of an other board size is rejected.")
+	@Test
+	public void testResetSizeMismatch() {
+		assertThrows(IllegalArgumentException.class, () -> new PlayoutSimulator(SIZE).reset(new GoState(13)));
+	}
+
+	private static GoState toGoState(byte[] board) {
+		return GoStateParser.parseGoState(IntStream.range(0, SIZE)
+				.mapToObj(y -> IntStream.range(0, SIZE)
+						.mapToObj(x -> switch(BoardSpace.values()[board[y * SIZE + x]]) {
+							case BLACK -> "B";
+							case WHITE -> "W";
+							case EMPTY -> "_";
+						})
+						.collect(Collectors.joining(",")))
+				.collect(Collectors.joining("\n")));
+	}
+}
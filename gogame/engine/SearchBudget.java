@@ -0,0 +1,22 @@
+package gogame.engine;
+
+/**
+ * Limits how long an engine searches: the search stops when the time is up, or the number of playouts is reached (whichever comes first).
+ * @param millis the maximum search time in milliseconds.
+ * @param playouts the maximum number of playouts.
+*/
+public record SearchBudget(long millis, long playouts) {
+	public SearchBudget {
+		if(millis <= 0 || playouts <= 0) {
+			throw new IllegalArgumentException("The search budget must be positive: %d ms, %d playouts".formatted(millis, playouts));
+		}
+	}
+	
+	public static SearchBudget ofMillis(long millis) {
+		return new SearchBudget(millis, Long.MAX_VALUE);
+	}
+	
+	public static SearchBudget ofPlayouts(long playouts) {
+		return new SearchBudget(Long.MAX_VALUE, playouts);
+	}
+}
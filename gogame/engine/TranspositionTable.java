@@ -0,0 +1,171 @@
+package gogame.engine;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A fixed-size cache of search results, keyed by the 64-bit Zobrist hash of the position (GoState.getZobristHash), that can be shared by search threads without locking.
+ * An entry is packed into one long: a value (float), the number of visits (saturated at MAX_VISITS), the best move (index, PASS or NO_MOVE) and the search depth.
+ * The entries are stored in a long[], as pairs of (key ^ data, data): a torn or concurrently overwritten pair doesn't decode to its key,
+ * so it's read as a miss instead of a wrong result (the "lockless hashing" of chess engines).
+ * The table has buckets of two entries: the first one keeps the deepest result (depth-preferred), the second one the most recent (always replaced).
+ * The key doesn't contain the history of the position, so a cached result can be wrong for the same position with a different history (because of superko),
+ * like in every transposition table of Go.
+*/
+public final class TranspositionTable {
+	public static final int PASS = -1;
+	public static final int NO_MOVE = -2;
+	public static final int MAX_VISITS = 0xFFFF;
+	public static final int MAX_DEPTH = 0x3F;
+	public static final long MISS = 0; // a stored entry has the VALID bit, so it's never 0
+	private static final int MAX_MOVE = 0x1FF - 2; // the moves are stored as move - NO_MOVE in 9 bits
+	private static final long VALID = 1L << 63;
+	private static final int VISITS_SHIFT = 32;
+	private static final int MOVE_SHIFT = 48;
+	private static final int DEPTH_SHIFT = 57;
+
+	private final long[] table; // bucket b: [key ^ data, data] of the deepest entry, then of the most recent entry, at 4 * b ... 4 * b + 3
+	private final int bucketMask;
+	private final LongAdder probes = new LongAdder();
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder stores = new LongAdder();
+	private final LongAdder replacements = new LongAdder();
+
+	/**
+	 * @param capacity the number of entries (rounded up to a power of 2, at least 2, at most 2^28), each takes 16 bytes.
+	*/
+	public TranspositionTable(int capacity) {
+		if(capacity <= 0 || 1 << 28 < capacity) {
+			throw new IllegalArgumentException("Invalid capacity: %d".formatted(capacity));
+		}
+		int buckets = Math.max(1, Integer.highestOneBit(capacity - 1)); // half of the capacity rounded up to a power of 2
+		table = new long[4 * buckets];
+		bucketMask = buckets - 1;
+	}
+
+	/**
+	 * Packs an entry into a long.
+	 * @param value of the position (from the point of view chosen by the search).
+	 * @param visits the number of visits (saturated at MAX_VISITS).
+	 * @param move the best move: the index of its point, PASS or NO_MOVE.
+	 * @param depth the depth of the search (saturated at MAX_DEPTH).
+	 * @return the packed entry, it's never MISS.
+	*/
+	public static long pack(float value, int visits, int move, int depth) {
+		if(move < NO_MOVE || MAX_MOVE < move) {
+			throw new IllegalArgumentException("Invalid move: %d".formatted(move));
+		}
+		if(visits < 0 || depth < 0) {
+			throw new IllegalArgumentException("Invalid visits or depth: %d, %d".formatted(visits, depth));
+		}
+		return VALID
+				| (long) Math.min(depth, MAX_DEPTH) << DEPTH_SHIFT
+				| (long) (move - NO_MOVE) << MOVE_SHIFT
+				| (long) Math.min(visits, MAX_VISITS) << VISITS_SHIFT
+				| Integer.toUnsignedLong(Float.floatToRawIntBits(value));
+	}
+
+	public static float value(long entry) { return Float.intBitsToFloat((int) entry); }
+	public static int visits(long entry) { return (int) (entry >>> VISITS_SHIFT) & MAX_VISITS; }
+	public static int move(long entry) { return ((int) (entry >>> MOVE_SHIFT) & 0x1FF) + NO_MOVE; }
+	public static int depth(long entry) { return (int) (entry >>> DEPTH_SHIFT) & MAX_DEPTH; }
+
+	/**
+	 * Looks up a position.
+	 * @param key the Zobrist hash of the position.
+	 * @return the packed entry (decoded by value, visits, move and depth), or MISS.
+	*/
+	public long probe(long key) {
+		probes.increment();
+		int slot = 4 * bucket(key);
+		for(int k = 0; k < 2; k++, slot += 2) {
+			long data = table[slot + 1];
+			if(MISS != data && key == (table[slot] ^ data)) {
+				hits.increment();
+				return data;
+			}
+		}
+		return MISS;
+	}
+
+	/**
+	 * Stores the result of a position. A result of the same position is overwritten; otherwise the deepest result of the bucket is kept,
+	 * and the other entry is replaced.
+	 * @param key the Zobrist hash of the position.
+	 * @param entry packed by pack.
+	*/
+	public void store(long key, long entry) {
+		if(MISS == entry) {
+			throw new IllegalArgumentException("Invalid entry: %d".formatted(entry));
+		}
+		stores.increment();
+		int slot = 4 * bucket(key);
+		long deepest = table[slot + 1];
+		long recent = table[slot + 3];
+		if(key == (table[slot] ^ deepest) || MISS == deepest) {
+			write(slot, key, entry);
+		} else if(key == (table[slot + 2] ^ recent) && depth(entry) < depth(deepest)) {
+			write(slot + 2, key, entry);
+		} else if(depth(deepest) <= depth(entry)) { // the new entry is the deepest, the old one becomes the recent
+			if(MISS != recent && key != (table[slot + 2] ^ recent)) {
+				replacements.increment();
+			}
+			table[slot + 2] = table[slot];
+			table[slot + 3] = deepest;
+			write(slot, key, entry);
+		} else {
+			if(MISS != recent) {
+				replacements.increment();
+			}
+			write(slot + 2, key, entry);
+		}
+	}
+
+	/**
+	 * Same as store(key, pack(value, visits, move, depth)).
+	*/
+	public void store(long key, float value, int visits, int move, int depth) {
+		store(key, pack(value, visits, move, depth));
+	}
+
+	private void write(int slot, long key, long entry) {
+		table[slot] = key ^ entry; // not atomic with the next write: a reader in between sees a pair, that decodes to a different key (a miss)
+		table[slot + 1] = entry;
+	}
+
+	private int bucket(long key) {
+		return (int) (key ^ key >>> 32) & bucketMask;
+	}
+
+	/**
+	 * Removes every entry, and resets the statistics.
+	*/
+	public void clear() {
+		Arrays.fill(table, 0);
+		probes.reset();
+		hits.reset();
+		stores.reset();
+		replacements.reset();
+	}
+
+	public int getCapacity() { return table.length / 2; }
+	public long getProbes() { return probes.sum(); }
+	public long getHits() { return hits.sum(); }
+	public long getStores() { return stores.sum(); }
+
+	/**
+	 * @return the number of stores, that evicted an entry of an other position.
+	*/
+	public long getReplacements() { return replacements.sum(); }
+
+	public double getHitRate() {
+		long p = getProbes();
+		return 0 == p ? 0 : (double) getHits() / p;
+	}
+
+	@Override
+	public String toString() {
+		return "%d entries: %d probes, %d hits (%.1f%%), %d stores, %d replacements".formatted(
+				getCapacity(), getProbes(), getHits(), 100 * getHitRate(), getStores(), getReplacements());
+	}
+}
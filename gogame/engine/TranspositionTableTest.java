@@ -0,0 +1,122 @@
+package gogame.engine;
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import gogame.GoState;
+import gogame.Point;
+
+@DisplayName("TranspositionTable tests")
+public class TranspositionTableTest {
+	@DisplayName("Testing, that the packed entries give back their fields (the visits and the depth are saturated).")
+	@ParameterizedTest(name = "value: {0}, visits: {1}, move: {2}, depth: {3}")
+	@CsvSource({
+		"0.0,    0,      -2,  0,  0,     0",
+		"0.75,   1234,   360, 12, 1234,  12",
+		"-1.5,   70000,  -1,  63, 65535, 63",
+		"1e30,   65535,  0,   99, 65535, 63",
+	})
+	public void testPack(float value, int visits, int move, int depth, int expectedVisits, int expectedDepth) {
+		long entry = TranspositionTable.pack(value, visits, move, depth);
+		assertAll(
+			() -> assertNotEquals(TranspositionTable.MISS, entry),
+			() -> assertEquals(value, TranspositionTable.value(entry)),
+			() -> assertEquals(expectedVisits, TranspositionTable.visits(entry)),
+			() -> assertEquals(move, TranspositionTable.move(entry)),
+			() -> assertEquals(expectedDepth, TranspositionTable.depth(entry))
+		);
+	}
+	
+	@DisplayName("Testing, that the invalid moves can't be packed.")
+	@ParameterizedTest
+	@CsvSource({ "-3", "510", "100000" })
+	public void testPackInvalidMove(int move) {
+		assertThrows(IllegalArgumentException.class, () -> TranspositionTable.pack(0, 0, move, 0));
+	}
+	
+	@DisplayName("Testing, that the stored positions are found by their Zobrist hash, and the other positions are misses.")
+	@Test
+	public void testProbe() {
+		TranspositionTable table = new TranspositionTable(1024);
+		GoState state = new GoState(9);
+		table.store(state.getZobristHash(), 0.5f, 10, 40, 3);
+		state.makeMove(Point.of(4, 4));
+		long moved = state.getZobristHash();
+		state.unmakeMove();
+		
+		long entry = table.probe(state.getZobristHash());
+		assertAll(
+			() -> assertEquals(40, TranspositionTable.move(entry)),
+			() -> assertEquals(10, TranspositionTable.visits(entry)),
+			() -> assertEquals(TranspositionTable.MISS, table.probe(moved)),
+			() -> assertEquals(2, table.getProbes()),
+			() -> assertEquals(1, table.getHits()),
+			() -> assertEquals(0.5, table.getHitRate())
+		);
+	}
+	
+	@DisplayName("Testing, that a bucket keeps the deepest entry and the most recent one.")
+	@Test
+	public void testReplacement() {
+		TranspositionTable table = new TranspositionTable(2); // one bucket, every key collides
+		table.store(1, 0, 0, 1, 5);
+		table.store(2, 0, 0, 2, 1);
+		table.store(3, 0, 0, 3, 2); // replaces the recent entry (2)
+		table.store(4, 0, 0, 4, 7); // becomes the deepest, (1) becomes the recent, (3) is evicted
+		table.store(4, 0, 0, 5, 0); // overwrites the same position, even with a smaller depth
+		assertAll(
+			() -> assertEquals(TranspositionTable.MISS, table.probe(2)),
+			() -> assertEquals(TranspositionTable.MISS, table.probe(3)),
+			() -> assertEquals(1, TranspositionTable.move(table.probe(1))),
+			() -> assertEquals(5, TranspositionTable.move(table.probe(4))),
+			() -> assertEquals(2, table.getReplacements())
+		);
+		
+		table.clear();
+		assertAll(
+			() -> assertEquals(TranspositionTable.MISS, table.probe(4)),
+			() -> assertEquals(0, table.getStores())
+		);
+	}
+	
+	@DisplayName("Testing, that concurrent stores never make a probe return an other position's entry.")
+	@Test
+	public void testConcurrentAccess() throws InterruptedException {
+		TranspositionTable table = new TranspositionTable(64); // small, so the threads overwrite each other's entries
+		AtomicInteger wrong = new AtomicInteger();
+		try(ExecutorService executor = Executors.newFixedThreadPool(4)) {
+			IntStream.range(0, 4).forEach(t -> executor.execute(() -> {
+				SplittableRandom random = new SplittableRandom(t);
+				for(int k = 0; k < 200_000; k++) {
+					long key = random.nextLong(1000);
+					int move = (int) (key % 300); // every key has its own move
+					if(random.nextBoolean()) {
+						table.store(key, 0, k, move, random.nextInt(10));
+					} else {
+						long entry = table.probe(key);
+						if(TranspositionTable.MISS != entry && move != TranspositionTable.move(entry)) {
+							wrong.incrementAndGet();
+						}
+					}
+				}
+			}));
+		}
+		assertAll(
+			() -> assertEquals(0, wrong.get()),
+			() -> assertTrue(0 < table.getHits())
+		);
+	}
+}
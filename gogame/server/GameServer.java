@@ -0,0 +1,337 @@
+package gogame.server;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+import gogame.BoardSize;
+import gogame.BoardSpace;
+import gogame.GoState;
+import gogame.MoveJournal;
+import gogame.Point;
+
+/**
+ * A headless game server: hosts any number of games (each a GoState) over a line based TCP protocol, every connection is served by a virtual thread.
+ * A game can be played from any connection (so two bots can play each other on the same game). The requests and their responses:
+ * <pre>
+ * NEW size               -&gt; OK id
+ * MOVE id x y | MOVE id PASS -&gt; OK, OK END (the game ended), or ILLEGAL
+ * LEGAL id x y           -&gt; YES or NO
+ * STATE id               -&gt; OK size turn blackCaptured whiteCaptured moveCount board (the board row by row: "." empty, "B" black, "W" white)
+ * CLOSE id               -&gt; OK (the game is removed)
+ * QUIT                   -&gt; BYE (the connection is closed)
+ * </pre>
+ * A wrong request is answered by "ERROR message".
+ * With a journal directory, every game is journaled by a MoveJournal ("id.gojl"): a move is answered after it's forced to the disk,
+ * and the games of the journals are recovered when the server starts. If a game's journal fails, the game doesn't accept moves any more
+ * (its last move may be on the board, but not in the journal).
+ * Usage: GameServer [port] [journal directory]
+*/
+public final class GameServer implements Closeable {
+	public static final int DEFAULT_PORT = 4242;
+
+	/**
+	 * A hosted game. The state is guarded by a ReentrantLock, not by synchronized, because a virtual thread blocked in synchronized code pins its carrier thread.
+	*/
+	private static final class Game {
+		private final GoState state;
+		private final ReentrantLock lock = new ReentrantLock();
+		private final MoveJournal journal; // null without a journal directory
+		private boolean ended; // guarded by "lock"
+		private boolean failed; // the journal failed, so the state and the journal differ, guarded by "lock"
+
+		private Game(GoState state, MoveJournal journal) {
+			this.state = state;
+			this.journal = journal;
+		}
+	}
+
+	private final Map<Integer, Game> games = new ConcurrentHashMap<>();
+	private final AtomicInteger nextId = new AtomicInteger(1);
+	private final Path journalDirectory;
+	private final ServerSocket serverSocket;
+	private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+	/**
+	 * Starts the server without journals.
+	 * @param port to listen on (0 chooses a free port).
+	*/
+	public GameServer(int port) throws IOException {
+		this(port, null);
+	}
+
+	/**
+	 * Starts the server: recovers the journaled games, then the connections are accepted on a (non-daemon) platform thread, until the server is closed.
+	 * @param port to listen on (0 chooses a free port).
+	 * @param journalDirectory of the games' journals, or null to keep the games only in memory.
+	*/
+	public GameServer(int port, Path journalDirectory) throws IOException {
+		this.journalDirectory = journalDirectory;
+		if(null != journalDirectory) {
+			recoverGames();
+		}
+		serverSocket = new ServerSocket(port, 1024);
+		Thread.ofPlatform().name("gogame-server").start(this::acceptConnections);
+	}
+
+	private void recoverGames() throws IOException {
+		Files.createDirectories(journalDirectory);
+		try(Stream<Path> journals = Files.list(journalDirectory)) {
+			for(Path path : (Iterable<Path>) journals.filter(path -> path.getFileName().toString().matches("\\d+\\.gojl"))::iterator) {
+				String name = path.getFileName().toString();
+				int id = Integer.parseInt(name.substring(0, name.indexOf('.')));
+				GoState state = MoveJournal.recover(path);
+				Game game = new Game(state, MoveJournal.create(path, state)); // rewrites the journal from the recovered state (without a torn record)
+				game.ended = state.isRepeated(); // the game ended by the move, that repeated a previous state
+				games.put(id, game);
+				nextId.accumulateAndGet(id + 1, Math::max);
+			}
+		}
+	}
+
+	private Path journal(int id) {
+		return journalDirectory.resolve("%d.gojl".formatted(id));
+	}
+
+	/**
+	 * @return the port the server listens on.
+	*/
+	public int getPort() { return serverSocket.getLocalPort(); }
+	public int getGameCount() { return games.size(); }
+
+	private void acceptConnections() {
+		while(!serverSocket.isClosed()) {
+			try {
+				Socket socket = serverSocket.accept();
+				executor.execute(() -> serve(socket));
+			} catch(IOException e) {
+				if(!serverSocket.isClosed()) {
+					System.err.println("Failed to accept a connection: %s".formatted(e));
+				}
+			}
+		}
+	}
+
+	private void serve(Socket socket) {
+		try(socket;
+				BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+				Writer out = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8))) {
+			socket.setTcpNoDelay(true); // the responses are small, they mustn't wait for more data
+			String line;
+			while(null != (line = in.readLine())) {
+				boolean quit = "QUIT".equals(line.strip());
+				out.write(quit ? "BYE" : handle(line));
+				out.write('\n');
+				if(!in.ready()) { // the pipelined requests are answered together
+					out.flush();
+				}
+				if(quit) {
+					return;
+				}
+			}
+		} catch(SocketException e) { // the client disconnected
+		} catch(IOException e) {
+			System.err.println("Connection failed: %s".formatted(e));
+		}
+	}
+
+	/**
+	 * Executes a request (apart from QUIT).
+	 * @param request a line of the protocol.
+	 * @return the response line (without the line separator).
+	*/
+	String handle(String request) {
+		String[] words = request.strip().split("\\s+");
+		try {
+			return switch(words[0].toUpperCase()) {
+				case "NEW" -> newGame(words);
+				case "MOVE" -> move(words);
+				case "LEGAL" -> legal(words);
+				case "STATE" -> state(words);
+				case "CLOSE" -> close(words);
+				default -> "ERROR Unknown request: %s".formatted(words[0]);
+			};
+		} catch(IllegalArgumentException e) {
+			return "ERROR %s".formatted(e.getMessage());
+		} catch(IOException e) {
+			return "ERROR The journal failed: %s".formatted(e.getMessage());
+		}
+	}
+
+	private String newGame(String[] words) throws IOException {
+		checkLength(words, 2);
+		int size = parse(words[1]);
+		if(Arrays.stream(BoardSize.values()).noneMatch(boardSize -> size == boardSize.getSize())) {
+			throw new IllegalArgumentException("Invalid board size: %d".formatted(size));
+		}
+		int id = nextId.getAndIncrement();
+		GoState state = new GoState(size);
+		games.put(id, new Game(state, null != journalDirectory ? MoveJournal.create(journal(id), state) : null));
+		return "OK %d".formatted(id);
+	}
+
+	private String move(String[] words) throws IOException {
+		boolean pass = 3 == words.length && "PASS".equalsIgnoreCase(words[2]);
+		if(!pass) {
+			checkLength(words, 4);
+		}
+		Game game = game(words[1]);
+		Point p = pass ? null : Point.of(parse(words[2]), parse(words[3]));
+		boolean ended;
+		game.lock.lock();
+		try {
+			if(game.failed) {
+				return "ERROR The journal of the game failed";
+			}
+			if(game.ended) {
+				return "ERROR The game has ended";
+			}
+			if(null != p && !game.state.isLegalMove(p)) {
+				return "ILLEGAL";
+			}
+			try {
+				ended = game.ended = game.state.makeMove(p); // appended to the journal by its MoveListener
+			} catch(UncheckedIOException e) { // the journal failed by an earlier move, this move is on the board, but not in the journal
+				game.failed = true;
+				throw e.getCause();
+			}
+		} finally {
+			game.lock.unlock();
+		}
+		if(null != game.journal) {
+			try {
+				game.journal.sync(); // outside of the lock: the moves of other connections are forced together with this one
+			} catch(IOException e) {
+				game.lock.lock();
+				try {
+					game.failed = true;
+				} finally {
+					game.lock.unlock();
+				}
+				throw e;
+			}
+		}
+		return ended ? "OK END" : "OK";
+	}
+
+	private String close(String[] words) throws IOException {
+		checkLength(words, 2);
+		int id = parse(words[1]);
+		Game game = games.remove(id);
+		if(null == game) {
+			return "ERROR No such game: %s".formatted(words[1]);
+		}
+		if(null != game.journal) {
+			game.lock.lock();
+			try {
+				game.journal.close();
+			} finally {
+				game.lock.unlock();
+			}
+			Files.deleteIfExists(journal(id));
+		}
+		return "OK";
+	}
+
+	private String legal(String[] words) {
+		checkLength(words, 4);
+		Game game = game(words[1]);
+		Point p = Point.of(parse(words[2]), parse(words[3]));
+		game.lock.lock();
+		try {
+			return !game.ended && !game.failed && game.state.isLegalMove(p) ? "YES" : "NO";
+		} finally {
+			game.lock.unlock();
+		}
+	}
+
+	private String state(String[] words) {
+		checkLength(words, 2);
+		Game game = game(words[1]);
+		game.lock.lock();
+		try {
+			GoState state = game.state;
+			int size = state.getSize();
+			StringBuilder board = new StringBuilder(size * size);
+			for(int i = 0; i < size * size; i++) {
+				BoardSpace boardSpace = state.getBoardSpace(i);
+				board.append(BoardSpace.EMPTY == boardSpace ? '.' : BoardSpace.BLACK == boardSpace ? 'B' : 'W');
+			}
+			return "OK %d %s %d %d %d %s".formatted(size, state.turn, state.getBlackCaptured(), state.getWhiteCaptured(), state.getMoveCount(), board);
+		} finally {
+			game.lock.unlock();
+		}
+	}
+
+	private Game game(String id) {
+		Game game = games.get(parse(id));
+		if(null == game) {
+			throw new IllegalArgumentException("No such game: %s".formatted(id));
+		}
+		return game;
+	}
+
+	private static int parse(String number) {
+		try {
+			return Integer.parseInt(number);
+		} catch(NumberFormatException e) {
+			throw new IllegalArgumentException("Invalid number: %s".formatted(number));
+		}
+	}
+
+	private static void checkLength(String[] words, int length) {
+		if(length != words.length) {
+			throw new IllegalArgumentException("Expected %d words: %s".formatted(length, String.join(" ", words)));
+		}
+	}
+
+	/**
+	 * Stops accepting connections, closes the running connections, and closes the journals (the journal files are kept).
+	*/
+	@Override
+	public void close() throws IOException {
+		serverSocket.close();
+		executor.shutdownNow(); // interrupts the connections' virtual threads, which closes their sockets
+		IOException failure = null; // a failed journal doesn't keep the others open
+		for(Game game : games.values()) {
+			if(null != game.journal) {
+				game.lock.lock();
+				try {
+					game.journal.close();
+				} catch(IOException e) {
+					failure = null == failure ? e : failure;
+				} finally {
+					game.lock.unlock();
+				}
+			}
+		}
+		if(null != failure) {
+			throw failure;
+		}
+	}
+
+	public static void main(String[] args) throws IOException {
+		int port = 0 < args.length ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+		GameServer server = new GameServer(port, 1 < args.length ? Path.of(args[1]) : null);
+		System.out.println("Listening on port %d".formatted(server.getPort()));
+	}
+}
@@ -0,0 +1,116 @@
+package gogame.server;
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+@DisplayName("GameServer tests")
+public class GameServerTest {
+	@DisplayName("Testing, that the requests of a game are answered by the protocol.")
+	@Test
+	public void testHandle() throws IOException {
+		try(GameServer server = new GameServer(0)) {
+			assertAll(
+				() -> assertEquals("OK 1", server.handle("NEW 9")),
+				() -> assertEquals("OK", server.handle("MOVE 1 4 4")),
+				() -> assertEquals("ILLEGAL", server.handle("MOVE 1 4 4")),
+				() -> assertEquals("ILLEGAL", server.handle("MOVE 1 9 0")),
+				() -> assertEquals("YES", server.handle("LEGAL 1 0 0")),
+				() -> assertEquals("OK", server.handle("move 1 pass")),
+				() -> assertEquals("OK 9 BLACK 0 0 2 " + ".".repeat(40) + "B" + ".".repeat(40), server.handle("STATE 1")),
+				() -> assertEquals("OK END", server.handle("MOVE 1 PASS")),
+				() -> assertEquals("ERROR The game has ended", server.handle("MOVE 1 0 0")),
+				() -> assertEquals("NO", server.handle("LEGAL 1 0 0")),
+				() -> assertEquals("OK", server.handle("CLOSE 1")),
+				() -> assertEquals(0, server.getGameCount())
+			);
+		}
+	}
+	
+	@DisplayName("Testing, that the wrong requests are answered by errors.")
+	@ParameterizedTest(name = "{0}")
+	@CsvSource(delimiter = '|', value = {
+		"NEW 10       | ERROR Invalid board size: 10",
+		"NEW nine     | ERROR Invalid number: nine",
+		"MOVE 7 1 1   | ERROR No such game: 7",
+		"MOVE 1 1     | ERROR Expected 4 words: MOVE 1 1",
+		"STATE        | ERROR Expected 2 words: STATE",
+		"RESIGN 1     | ERROR Unknown request: RESIGN",
+	})
+	public void testErrors(String request, String response) throws IOException {
+		try(GameServer server = new GameServer(0)) {
+			assertEquals(response, server.handle(request));
+		}
+	}
+	
+	@DisplayName("Testing, that concurrent connections can play the same game over TCP.")
+	@Test
+	public void testConnections() throws IOException {
+		try(GameServer server = new GameServer(0);
+				Socket black = new Socket("localhost", server.getPort());
+				Socket white = new Socket("localhost", server.getPort())) {
+			BufferedReader blackIn = new BufferedReader(new InputStreamReader(black.getInputStream(), StandardCharsets.UTF_8));
+			PrintWriter blackOut = new PrintWriter(black.getOutputStream(), true, StandardCharsets.UTF_8);
+			BufferedReader whiteIn = new BufferedReader(new InputStreamReader(white.getInputStream(), StandardCharsets.UTF_8));
+			PrintWriter whiteOut = new PrintWriter(white.getOutputStream(), true, StandardCharsets.UTF_8);
+			
+			blackOut.println("NEW 13");
+			assertEquals("OK 1", blackIn.readLine());
+			blackOut.println("MOVE 1 3 3");
+			assertEquals("OK", blackIn.readLine());
+			whiteOut.println("MOVE 1 3 3\nMOVE 1 9 9\nSTATE 1"); // pipelined requests
+			assertAll(
+				() -> assertEquals("ILLEGAL", whiteIn.readLine()),
+				() -> assertEquals("OK", whiteIn.readLine()),
+				() -> assertEquals(13 * 13, whiteIn.readLine().split(" ")[6].length())
+			);
+			whiteOut.println("QUIT");
+			assertEquals("BYE", whiteIn.readLine());
+		}
+	}
+	
+	@DisplayName("Testing, that the journaled games are recovered, when the server is restarted.")
+	@Test
+	public void testJournal(@TempDir Path directory) throws IOException {
+		String state;
+		try(GameServer server = new GameServer(0, directory)) {
+			assertAll(
+				() -> assertEquals("OK 1", server.handle("NEW 9")),
+				() -> assertEquals("OK 2", server.handle("NEW 9")),
+				() -> assertEquals("OK", server.handle("MOVE 1 4 4")),
+				() -> assertEquals("OK", server.handle("MOVE 1 PASS")),
+				() -> assertEquals("OK", server.handle("MOVE 1 3 3")),
+				() -> assertEquals("OK", server.handle("CLOSE 2")),
+				() -> assertEquals("OK 3", server.handle("NEW 9")),
+				() -> assertEquals("OK", server.handle("MOVE 3 PASS")),
+				() -> assertEquals("OK END", server.handle("MOVE 3 PASS"))
+			);
+			assertFalse(Files.exists(directory.resolve("2.gojl")));
+			state = server.handle("STATE 1");
+		}
+		try(GameServer server = new GameServer(0, directory)) {
+			assertAll(
+				() -> assertEquals(2, server.getGameCount()),
+				() -> assertEquals(state, server.handle("STATE 1")),
+				() -> assertEquals("OK", server.handle("MOVE 1 5 5")), // the recovered game continues
+				() -> assertEquals("ERROR The game has ended", server.handle("MOVE 3 0 0")), // the recovered game has ended
+				() -> assertEquals("NO", server.handle("LEGAL 3 0 0")),
+				() -> assertEquals("OK 4", server.handle("NEW 9")) // the next id after the recovered games
+			);
+		}
+	}
+}
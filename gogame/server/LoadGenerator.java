@@ -0,0 +1,163 @@
+package gogame.server;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Plays random games on a GameServer from many concurrent clients (one connection and one virtual thread per client),
+ * and reports the throughput (moves/s, requests/s) and the latency percentiles of the requests.
+ * A client starts a game, plays random points (passes after too many illegal tries) until the game ends or gets too long, closes it, and starts the next one.
+ * Usage: LoadGenerator [host:port | embedded] [clients] [seconds] [board size]
+ * ("embedded" starts a server in the same JVM).
+*/
+public final class LoadGenerator {
+	private static final int MAX_ILLEGAL_TRIES = 10; // the random points, that are tried before passing
+
+	/**
+	 * The counts and the request latencies of a client.
+	*/
+	private static final class ClientResult {
+		private long games;
+		private long moves;
+		private long illegalMoves;
+		private long[] latencies = new long[1024]; // nanoseconds
+		private int requests;
+
+		private void addLatency(long nanos) {
+			if(requests == latencies.length) {
+				latencies = Arrays.copyOf(latencies, 2 * requests);
+			}
+			latencies[requests++] = nanos;
+		}
+	}
+
+	private final String host;
+	private final int port;
+	private final int size;
+	private final long deadline;
+
+	private LoadGenerator(String host, int port, int size, long deadline) {
+		this.host = host;
+		this.port = port;
+		this.size = size;
+		this.deadline = deadline;
+	}
+
+	private ClientResult runClient(long seed) throws IOException {
+		ClientResult result = new ClientResult();
+		SplittableRandom random = new SplittableRandom(seed);
+		try(Socket socket = new Socket(host, port);
+				BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+				Writer out = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8))) {
+			socket.setTcpNoDelay(true);
+			while(System.nanoTime() < deadline) {
+				String id = expectOk(request("NEW %d".formatted(size), in, out, result)).substring(3);
+				int illegalTries = 0;
+				for(int move = 0; move < 3 * size * size && System.nanoTime() < deadline; ) {
+					boolean pass = MAX_ILLEGAL_TRIES <= illegalTries;
+					String response = request(pass ? "MOVE %s PASS".formatted(id) : "MOVE %s %d %d".formatted(id, random.nextInt(size), random.nextInt(size)), in, out, result);
+					if("ILLEGAL".equals(response)) {
+						++result.illegalMoves;
+						++illegalTries;
+						continue;
+					}
+					expectOk(response);
+					++result.moves;
+					++move;
+					illegalTries = 0;
+					if("OK END".equals(response)) {
+						break;
+					}
+				}
+				expectOk(request("CLOSE %s".formatted(id), in, out, result));
+				++result.games;
+			}
+			request("QUIT", in, out, result);
+		}
+		return result;
+	}
+
+	private static String request(String request, BufferedReader in, Writer out, ClientResult result) throws IOException {
+		long start = System.nanoTime();
+		out.write(request);
+		out.write('\n');
+		out.flush();
+		String response = in.readLine();
+		result.addLatency(System.nanoTime() - start);
+		if(null == response) {
+			throw new IOException("The server closed the connection");
+		}
+		return response;
+	}
+
+	private static String expectOk(String response) throws IOException {
+		if(!response.startsWith("OK")) {
+			throw new IOException("Unexpected response: %s".formatted(response));
+		}
+		return response;
+	}
+
+	public static void main(String[] args) throws Exception {
+		if(4 != args.length) {
+			System.err.println("Usage: LoadGenerator [host:port | embedded] [clients] [seconds] [board size]");
+			System.exit(1);
+		}
+		int clients = Integer.parseInt(args[1]);
+		double seconds = Double.parseDouble(args[2]);
+		int size = Integer.parseInt(args[3]);
+
+		GameServer embedded = "embedded".equals(args[0]) ? new GameServer(0) : null;
+		String host = null != embedded ? "localhost" : args[0].substring(0, args[0].lastIndexOf(':'));
+		int port = null != embedded ? embedded.getPort() : Integer.parseInt(args[0].substring(args[0].lastIndexOf(':') + 1));
+
+		long start = System.nanoTime();
+		LoadGenerator generator = new LoadGenerator(host, port, size, start + (long) (seconds * 1e9));
+		List<ClientResult> results = new ArrayList<>();
+		try(ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+			List<Future<ClientResult>> futures = new ArrayList<>();
+			for(int c = 0; c < clients; c++) {
+				long seed = c;
+				futures.add(executor.submit(() -> generator.runClient(seed)));
+			}
+			for(Future<ClientResult> future : futures) {
+				results.add(future.get());
+			}
+		} finally {
+			if(null != embedded) {
+				embedded.close();
+			}
+		}
+		double elapsed = (System.nanoTime() - start) / 1e9;
+
+		long games = results.stream().mapToLong(result -> result.games).sum();
+		long moves = results.stream().mapToLong(result -> result.moves).sum();
+		long illegalMoves = results.stream().mapToLong(result -> result.illegalMoves).sum();
+		long[] latencies = results.stream()
+				.flatMapToLong(result -> Arrays.stream(result.latencies, 0, result.requests))
+				.sorted()
+				.toArray();
+		System.out.println("%d clients, %d games, %d moves (%d illegal tries) in %.2f s: %.0f moves/s, %.0f requests/s".formatted(
+				clients, games, moves, illegalMoves, elapsed, moves / elapsed, latencies.length / elapsed));
+		if(0 < latencies.length) {
+			System.out.println("Latency: p50 %.1f us, p99 %.1f us, max %.1f us".formatted(
+					percentile(latencies, 0.5) / 1e3, percentile(latencies, 0.99) / 1e3, latencies[latencies.length - 1] / 1e3));
+		}
+	}
+
+	private static long percentile(long[] sorted, double q) {
+		return sorted[Math.max(0, (int) Math.ceil(q * sorted.length) - 1)];
+	}
+}